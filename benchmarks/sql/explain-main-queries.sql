@@ -0,0 +1,32 @@
+\echo '-- public events page: state + event_date range'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM events
+WHERE state = 'PUBLISHED' AND event_date >= now() + interval '10 days' AND event_date <= now() + interval '11 days'
+ORDER BY event_date, id
+LIMIT 10;
+
+\echo '-- events of an initiator'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM events WHERE initiator_id = (SELECT max(id) - 9999 FROM users) + 42 LIMIT 10;
+
+\echo '-- category in use'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id FROM events WHERE category_id = (SELECT max(id) - 99 FROM categories) + 7 LIMIT 1;
+
+\echo '-- category usage counts'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT c.id, c.name, count(e.id) FROM categories c LEFT JOIN events e ON e.category_id = c.id
+GROUP BY c.id, c.name ORDER BY c.id LIMIT 10;
+
+\echo '-- requests of an event by status'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM requests WHERE event_id = (SELECT max(id) - 199999 FROM events) + 4242 AND status = 'PENDING';
+
+\echo '-- duplicate request check'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM requests
+WHERE requester_id = (SELECT max(id) - 9999 FROM users) + 42 AND event_id = (SELECT max(id) - 199999 FROM events) + 42;
+
+\echo '-- pinned compilations'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM compilations WHERE pinned = true LIMIT 10;
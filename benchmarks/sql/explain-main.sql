@@ -0,0 +1,61 @@
+-- Query plans of the hot ewm-main-service predicates with and without the V2 indexes.
+-- Run against a migrated main database, e.g.
+--   psql -h localhost -p 5432 -U root -d ewm_main_db -f benchmarks/sql/explain-main.sql
+-- Everything happens in one transaction that is rolled back, so the seed data and the dropped indexes
+-- are not kept. Seed rows are referenced relative to the highest ids, so existing rows don't get in the way.
+
+BEGIN;
+
+INSERT INTO users (name, email)
+SELECT 'user ' || i, 'user' || i || '@bench.ru' FROM generate_series(1, 10000) i;
+INSERT INTO categories (name)
+SELECT 'category ' || i FROM generate_series(1, 100) i;
+INSERT INTO locations (lat, lon) VALUES (55.75, 37.62);
+
+INSERT INTO events (annotation, category_id, description, created, event_date, published, paid, participant_limit,
+                    request_moderation, title, initiator_id, location_id, state)
+SELECT 'annotation ' || i,
+       (SELECT max(id) - 99 FROM categories) + i % 100,
+       repeat('description ' || i || ' ', 20),
+       now() - interval '30 days',
+       now() + (i % 720) * interval '1 hour',
+       now() - interval '1 day',
+       i % 2 = 0,
+       i % 50,
+       true,
+       'title ' || i,
+       (SELECT max(id) - 9999 FROM users) + i % 10000,
+       (SELECT max(id) FROM locations),
+       CASE WHEN i % 4 = 0 THEN 'PENDING' ELSE 'PUBLISHED' END
+FROM generate_series(1, 200000) i;
+
+INSERT INTO requests (status, created, event_id, requester_id)
+SELECT CASE WHEN i % 3 = 0 THEN 'CONFIRMED' ELSE 'PENDING' END,
+       now(),
+       (SELECT max(id) - 199999 FROM events) + i % 200000,
+       (SELECT max(id) - 9999 FROM users) + i % 10000
+FROM generate_series(1, 500000) i;
+
+INSERT INTO compilations (title, pinned)
+SELECT 'compilation ' || i, i % 10 = 0 FROM generate_series(1, 1000) i;
+
+ANALYZE users;
+ANALYZE categories;
+ANALYZE events;
+ANALYZE requests;
+ANALYZE compilations;
+
+\echo '==== with indexes ===='
+\ir explain-main-queries.sql
+
+DROP INDEX events_state_event_date_idx;
+DROP INDEX events_initiator_id_idx;
+DROP INDEX events_category_id_idx;
+DROP INDEX requests_event_id_status_idx;
+DROP INDEX requests_requester_id_event_id_idx;
+DROP INDEX compilations_pinned_idx;
+
+\echo '==== without indexes ===='
+\ir explain-main-queries.sql
+
+ROLLBACK;
@@ -0,0 +1,15 @@
+\echo '-- views of a page of events'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT app, uri, count(DISTINCT ip) FROM stats
+WHERE timestamp BETWEEN now() - interval '7 days' AND now()
+  AND uri IN ('/events/1', '/events/2', '/events/3', '/events/4', '/events/5',
+              '/events/6', '/events/7', '/events/8', '/events/9', '/events/10')
+GROUP BY app, uri
+ORDER BY count(DISTINCT ip) DESC;
+
+\echo '-- all uris in the last hour'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT app, uri, count(ip) FROM stats
+WHERE timestamp BETWEEN now() - interval '1 hour' AND now()
+GROUP BY app, uri
+ORDER BY count(ip) DESC;
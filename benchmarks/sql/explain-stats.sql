@@ -0,0 +1,26 @@
+-- Query plans of the stats-server range queries with and without the V2 indexes.
+-- Run against a migrated stats database, e.g.
+--   psql -h localhost -p 6543 -U root -d ewm_stats_db -f benchmarks/sql/explain-stats.sql
+-- Everything happens in one transaction that is rolled back.
+
+BEGIN;
+
+INSERT INTO stats (app, uri, ip, timestamp)
+SELECT 'ewm-main-service',
+       '/events/' || (i % 20000),
+       '10.0.' || (i % 250) || '.' || (i % 199),
+       now() - (i % 43200) * interval '1 minute'
+FROM generate_series(1, 2000000) i;
+
+ANALYZE stats;
+
+\echo '==== with indexes ===='
+\ir explain-stats-queries.sql
+
+DROP INDEX stats_uri_timestamp_idx;
+DROP INDEX stats_timestamp_idx;
+
+\echo '==== without indexes ===='
+\ir explain-stats-queries.sql
+
+ROLLBACK;
@@ -0,0 +1,71 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.dto.EventFullDto;
+import ru.practicum.dto.EventShortDto;
+import ru.practicum.mapper.EventMapper;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.Location;
+import ru.practicum.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventMapperBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private List<Event> events;
+    private Map<Long, Integer> views;
+
+    @Setup
+    public void setUp() {
+        Category category = Category.builder().id(1L).name("concerts").build();
+        User initiator = User.builder().id(1L).name("initiator").email("initiator@mail.ru").build();
+        Location location = Location.builder().id(1L).lat(55.75f).lon(37.62f).build();
+        LocalDateTime now = LocalDateTime.now();
+        events = new ArrayList<>();
+        views = new HashMap<>();
+        for (long id = 1; id <= size; id++) {
+            events.add(Event.builder()
+                    .id(id)
+                    .annotation("Annotation of event " + id)
+                    .category(category)
+                    .createdOn(now.minusDays(1))
+                    .description("Description of event " + id)
+                    .eventDate(now.plusDays(id % 30 + 1))
+                    .initiator(initiator)
+                    .location(location)
+                    .paid(id % 2 == 0)
+                    .participantLimit((int) (id % 50))
+                    .confirmedRequests((int) (id % 10))
+                    .publishedOn(now)
+                    .requestModeration(true)
+                    .state(ru.practicum.model.State.PUBLISHED)
+                    .title("Event " + id)
+                    .build());
+            views.put(id, (int) (id * 7 % 1000));
+        }
+    }
+
+    @Benchmark
+    public List<EventShortDto> toShortDtos() {
+        return EventMapper.toShortDtos(events, views);
+    }
+
+    @Benchmark
+    public List<EventFullDto> toFullDtos() {
+        return EventMapper.toFullDtos(events, views);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging the stored hourly sketches of one uri, as RollupServiceImpl.getUniqueStats does for a range query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RollupMergeBenchmark {
+    private static final int IPS_PER_BUCKET = 200;
+
+    @Param({"24", "720", "8760"})
+    private int buckets;
+
+    private byte[][] sketches;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        sketches = new byte[buckets][];
+        for (int i = 0; i < buckets; i++) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int j = 0; j < IPS_PER_BUCKET; j++) {
+                sketch.offer("10.0." + random.nextInt(256) + "." + random.nextInt(256));
+            }
+            sketches[i] = sketch.toBytes();
+        }
+    }
+
+    @Benchmark
+    public long mergeAndEstimate() {
+        HyperLogLog merged = new HyperLogLog();
+        for (byte[] sketch : sketches) {
+            merged.merge(sketch);
+        }
+        return merged.estimate();
+    }
+}
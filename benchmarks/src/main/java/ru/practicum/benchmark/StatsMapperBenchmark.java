@@ -0,0 +1,66 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.dto.EndpointHit;
+import ru.practicum.mapper.StatsMapper;
+import ru.practicum.model.Stats;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a batch of incoming hits (StatsMapper.toEntities), plus the bare DateTimeFormatter parse/format
+ * calls that StatsMapper and EventMapper make once per hit or event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatsMapperBenchmark {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"500", "10000"})
+    private int size;
+
+    private List<EndpointHit> hits;
+    private String timestamp;
+    private LocalDateTime dateTime;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        hits = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            hits.add(EndpointHit.builder()
+                    .app("ewm-main-service")
+                    .uri("/events/" + i)
+                    .ip("10.0.0." + i % 256)
+                    .timestamp(now.minusSeconds(i).format(FORMAT))
+                    .build());
+        }
+        timestamp = now.format(FORMAT);
+        dateTime = now;
+    }
+
+    @Benchmark
+    public List<Stats> toEntities() {
+        return StatsMapper.toEntities(hits);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public LocalDateTime parse() {
+        return LocalDateTime.parse(timestamp, FORMAT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String format() {
+        return dateTime.format(FORMAT);
+    }
+}
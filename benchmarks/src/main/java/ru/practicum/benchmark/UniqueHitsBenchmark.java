@@ -0,0 +1,75 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unique hits per uri over a synthetic hit list, counted in memory: exactly with a set of ips per uri, against the
+ * {@link HyperLogLog} sketch that rollups store for approximate=true. This compares the two ways of counting, not
+ * the server: for unique=true the stats server runs count(distinct ip) in SQL (see sql/explain-stats-queries.sql),
+ * and UniqueStatsBenchmark measures the approximate=true path of RollupServiceImpl.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UniqueHitsBenchmark {
+    private static final int URIS = 1_000;
+    private static final int IPS = 100_000;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int hits;
+
+    private String[] uris;
+    private String[] ips;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] uriPool = new String[URIS];
+        for (int i = 0; i < URIS; i++) {
+            uriPool[i] = "/events/" + i;
+        }
+        String[] ipPool = new String[IPS];
+        for (int i = 0; i < IPS; i++) {
+            ipPool[i] = "10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+        }
+        uris = new String[hits];
+        ips = new String[hits];
+        for (int i = 0; i < hits; i++) {
+            uris[i] = uriPool[random.nextInt(URIS)];
+            ips[i] = ipPool[random.nextInt(IPS)];
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> exact() {
+        Map<String, Set<String>> ipsByUri = new HashMap<>();
+        for (int i = 0; i < hits; i++) {
+            ipsByUri.computeIfAbsent(uris[i], uri -> new HashSet<>()).add(ips[i]);
+        }
+        Map<String, Integer> unique = new HashMap<>();
+        ipsByUri.forEach((uri, uriIps) -> unique.put(uri, uriIps.size()));
+        return unique;
+    }
+
+    @Benchmark
+    public Map<String, Long> hyperLogLog() {
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+        for (int i = 0; i < hits; i++) {
+            sketches.computeIfAbsent(uris[i], uri -> new HyperLogLog()).offer(ips[i]);
+        }
+        Map<String, Long> unique = new HashMap<>();
+        sketches.forEach((uri, sketch) -> unique.put(uri, sketch.estimate()));
+        return unique;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.dto.ViewStats;
+import ru.practicum.model.RollupSketch;
+import ru.practicum.model.Stats;
+import ru.practicum.repository.StatsRepository;
+import ru.practicum.repository.StatsRollupRepository;
+import ru.practicum.service.RollupServiceImpl;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RollupServiceImpl.getUniqueStats, the approximate=true path of /stats, for a range of whole hourly buckets. The
+ * repositories are replaced with in-memory ones, so this measures the service itself: merging the stored sketches,
+ * offering the hits not rolled up yet and estimating, but not the queries behind them (see sql/).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UniqueStatsBenchmark {
+    private static final String APP = "ewm-main-service";
+    private static final int URIS = 10;
+    private static final int IPS_PER_BUCKET = 200;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"24", "720"})
+    private int buckets;
+
+    @Param({"0", "10000"})
+    private int pendingHits;
+
+    private RollupServiceImpl rollupService;
+    private List<String> uris;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        uris = new ArrayList<>();
+        for (int i = 0; i < URIS; i++) {
+            uris.add("/events/" + i);
+        }
+        RollupSketch[] rollups = new RollupSketch[URIS * buckets];
+        for (int i = 0; i < rollups.length; i++) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int j = 0; j < IPS_PER_BUCKET; j++) {
+                sketch.offer("10.0." + random.nextInt(256) + "." + random.nextInt(256));
+            }
+            rollups[i] = new Rollup(APP, uris.get(i % URIS), sketch.toBytes());
+        }
+        List<Stats> pending = new ArrayList<>();
+        for (int i = 0; i < pendingHits; i++) {
+            pending.add(new Stats((long) i + 1, APP, uris.get(random.nextInt(URIS)),
+                    "10.1." + random.nextInt(256) + "." + random.nextInt(256), START.plusSeconds(i)));
+        }
+        end = START.plusHours(buckets).minus(1, ChronoUnit.MICROS);
+
+        StatsRollupRepository rollupRepository = repository(StatsRollupRepository.class, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "streamSketchesByUris" -> Arrays.stream(rollups);
+                    case "findLastRolledUpId" -> 0L;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        StatsRepository statsRepository = repository(StatsRepository.class, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "findPendingHitsByUris" -> pending;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        rollupService = new RollupServiceImpl(rollupRepository, statsRepository, new PostgreSqlJdbcTemplate(), true,
+                Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public List<ViewStats> getUniqueStats() {
+        return rollupService.getUniqueStats(START, end, uris);
+    }
+
+    private static <T> T repository(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private record Rollup(String getApp, String getUri, byte[] getIpSketch) implements RollupSketch {
+    }
+
+    /**
+     * Reports PostgreSQL, so that the service keeps rollups on; no other call reaches it.
+     */
+    private static class PostgreSqlJdbcTemplate extends JdbcTemplate {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(ConnectionCallback<T> action) {
+            return (T) "PostgreSQL";
+        }
+    }
+}
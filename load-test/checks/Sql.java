@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Runs each argument after the JDBC URL as one statement and prints result rows as {@code a | b}. Used by the
+ * check scripts in place of psql: {@code java -cp postgresql.jar Sql.java <url> <statement>...}
+ * <p>
+ * {@code -f <file>} runs a script instead: statements end with a semicolon at the end of a line, and of the psql
+ * meta-commands only {@code \echo} and {@code \ir} are understood.
+ */
+public class Sql {
+    public static void main(String[] args) throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(args[0])) {
+            if (args.length == 3 && args[1].equals("-f")) {
+                runScript(connection, Path.of(args[2]));
+                return;
+            }
+            for (int i = 1; i < args.length; i++) {
+                execute(connection, args[i]);
+            }
+        }
+    }
+
+    private static void runScript(Connection connection, Path file) throws SQLException, IOException {
+        StringBuilder statement = new StringBuilder();
+        for (String line : Files.readAllLines(file)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("\\echo ")) {
+                System.out.println(unquote(trimmed.substring("\\echo ".length()).trim()));
+            } else if (trimmed.startsWith("\\ir ")) {
+                runScript(connection, file.resolveSibling(trimmed.substring("\\ir ".length()).trim()));
+            } else if (!trimmed.isEmpty() && !trimmed.startsWith("--")) {
+                statement.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    execute(connection, statement.toString());
+                    statement.setLength(0);
+                }
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            boolean hasRows = statement.execute(sql);
+            while (hasRows || statement.getUpdateCount() != -1) {
+                if (hasRows) {
+                    print(statement.getResultSet());
+                }
+                hasRows = statement.getMoreResults();
+            }
+        }
+    }
+
+    private static String unquote(String text) {
+        return text.length() > 1 && text.startsWith("'") && text.endsWith("'")
+                ? text.substring(1, text.length() - 1)
+                : text;
+    }
+
+    private static void print(ResultSet rows) throws SQLException {
+        int columns = rows.getMetaData().getColumnCount();
+        while (rows.next()) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 1; i <= columns; i++) {
+                line.append(i > 1 ? " | " : "").append(rows.getString(i));
+            }
+            System.out.println(line);
+        }
+    }
+}
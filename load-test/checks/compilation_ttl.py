@@ -0,0 +1,50 @@
+"""
+Checks that CompilationViewsRefreshJob refreshes the views of a cached compilation without extending its life:
+views keep growing while the entry stays cached, and the entry is still reloaded once COMPILATION_TTL seconds
+have passed. Start the main service with a short ewm.compilation-cache.ttl and views refresh interval, and run
+this check alone, since it counts compilation cache misses.
+"""
+import os
+import random
+import re
+import time
+import urllib.request
+
+from ewm import MAIN_URL, RUN, STATS_URL, check, expect, finish
+
+TTL = float(os.environ.get("COMPILATION_TTL", "20"))
+MISSES = re.compile(r'cache_gets_total\{cache="compilations",cache_manager="compilationResponseCache",'
+                    r'name="compilations",result="miss"} (\S+)')
+
+
+def misses():
+    with urllib.request.urlopen(MAIN_URL + "/actuator/prometheus") as response:
+        return float(MISSES.search(response.read().decode()).group(1))
+
+
+owner = expect("POST", "/admin/users", 201, {"name": f"ttl {RUN}", "email": f"t{RUN}@example.com"})["id"]
+cat = expect("POST", "/admin/categories", 201, {"name": f"ttl {RUN}"})["id"]
+event = expect("POST", f"/users/{owner}/events", 201, {
+    "annotation": "a" * 30, "category": cat, "description": "d" * 30, "eventDate": "2030-01-01 10:00:00",
+    "location": {"lat": 1, "lon": 1}, "paid": False, "participantLimit": 0, "requestModeration": False,
+    "title": "ttl event"})["id"]
+expect("PATCH", f"/admin/events/{event}", 200, {"stateAction": "PUBLISH_EVENT"})
+comp = expect("POST", "/admin/compilations", 201, {"events": [event], "pinned": False, "title": f"ttl {RUN}"})["id"]
+
+expect("GET", f"/compilations/{comp}", 200)
+loaded_at, start_misses = time.time(), misses()
+seen = []
+while time.time() - loaded_at < TTL + 8:
+    expect("POST", "/hit", 201, {"app": "ewm-main-service", "uri": f"/events/{event}",
+                                 "ip": f"10.{random.randint(0, 255)}.{random.randint(0, 255)}.1",
+                                 "timestamp": time.strftime("%Y-%m-%d %H:%M:%S")}, STATS_URL)
+    time.sleep(2)
+    views = expect("GET", f"/compilations/{comp}", 200)["events"][0]["views"]
+    seen.append((time.time() - loaded_at, views, misses() - start_misses))
+    print("%5.1fs views %s reloads %d" % seen[-1])
+
+before_ttl = [s for s in seen if s[0] < TTL - 1]
+check("views are refreshed while the entry is cached",
+      before_ttl[-1][1] > before_ttl[0][1] and before_ttl[-1][2] == 0)
+check("the entry is reloaded once its TTL has passed", 1 <= seen[-1][2] <= 2)
+finish()
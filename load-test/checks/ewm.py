@@ -0,0 +1,42 @@
+"""HTTP helpers shared by the check scripts. Base URLs come from MAIN_URL and STATS_URL."""
+import json
+import os
+import random
+import sys
+import urllib.error
+import urllib.request
+
+MAIN_URL = os.environ.get("MAIN_URL", "http://localhost:8080")
+STATS_URL = os.environ.get("STATS_URL", "http://localhost:9090")
+RUN = random.randint(0, 10 ** 9)
+failures = []
+
+
+def call(method, path, body=None, base=MAIN_URL):
+    data = json.dumps(body).encode() if body is not None else None
+    request = urllib.request.Request(base + path, method=method, data=data,
+                                     headers={"Content-Type": "application/json"})
+    try:
+        with urllib.request.urlopen(request) as response:
+            text = response.read().decode()
+            return response.status, json.loads(text) if text else None
+    except urllib.error.HTTPError as e:
+        return e.code, e.read().decode()
+
+
+def expect(method, path, status, body=None, base=MAIN_URL):
+    code, result = call(method, path, body, base)
+    if code != status:
+        check(f"{method} {path} -> {status}", False, f"got {code}: {str(result)[:300]}")
+    return result
+
+
+def check(name, ok, detail=""):
+    print(("ok   " if ok else "FAIL ") + name + ("" if ok else f" ({detail})"))
+    if not ok:
+        failures.append(name)
+
+
+def finish():
+    print(f"{len(failures)} failed" if failures else "all checks passed")
+    sys.exit(1 if failures else 0)
@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Checks the stats partitioning on PostgreSQL (db/migration/postgresql/V3 and StatsPartitionManager) against a
+# scratch database, which it drops and recreates:
+# 1. V3 gives rows of any age a partition for their own day, leaving stats_default empty;
+# 2. rows that landed in stats_default are moved into new partitions for their days on the next run;
+# 3. rows in stats_default older than the retention period are deleted.
+# Usage: load-test/checks/partitions.sh   (PG_URL, PG_USER, PG_PASSWORD and CHECK_DB override the defaults)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/../.." && pwd)
+PG_URL=${PG_URL:-jdbc:postgresql://localhost:5432}
+PG_USER=${PG_USER:-root}
+PG_PASSWORD=${PG_PASSWORD:-root}
+CHECK_DB=${CHECK_DB:-ewm_stats_check}
+PORT=${PORT:-9191}
+JAR=$(ls "$ROOT"/stats/stats-server/target/stats-server-*-exec.jar)
+DRIVER=$(ls ~/.m2/repository/org/postgresql/postgresql/*/postgresql-*.jar | tail -1)
+FAILED=0
+
+sql() {
+  local db=$1
+  shift
+  java -cp "$DRIVER" "$ROOT/load-test/checks/Sql.java" "$PG_URL/$db?user=$PG_USER&password=$PG_PASSWORD" "$@"
+}
+
+start_stats() {
+  java -jar "$JAR" --server.port="$PORT" --spring.datasource.url="$PG_URL/$CHECK_DB" \
+    --spring.datasource.username="$PG_USER" --spring.datasource.password="$PG_PASSWORD" \
+    --spring.jpa.show-sql=false "$@" > "$ROOT/load-test/target/partitions-check.log" 2>&1 &
+  STATS_PID=$!
+  for _ in $(seq 1 60); do
+    curl -s "localhost:$PORT/actuator/health" > /dev/null && break
+    sleep 1
+  done
+  sleep 3
+  kill "$STATS_PID"
+  wait "$STATS_PID" || true
+}
+
+expect() {
+  local name=$1 expected=$2 actual=$3
+  if [ "$expected" == "$actual" ]; then
+    echo "ok   $name"
+  else
+    echo "FAIL $name (expected '$expected', got '$actual')"
+    FAILED=1
+  fi
+}
+
+mkdir -p "$ROOT/load-test/target"
+sql postgres "drop database if exists $CHECK_DB" "create database $CHECK_DB"
+
+start_stats --spring.flyway.target=2
+sql "$CHECK_DB" "insert into stats (app, uri, ip, timestamp) values
+  ('ewm', '/a', '1.1.1.1', now() - interval '400 days'),
+  ('ewm', '/a', '1.1.1.2', now() - interval '200 days'),
+  ('ewm', '/b', '1.1.1.1', now() - interval '1 hour')"
+start_stats
+expect "V3 keeps every row" 3 "$(sql "$CHECK_DB" "select count(*) from stats")"
+expect "V3 leaves stats_default empty" 0 "$(sql "$CHECK_DB" "select count(*) from stats_default")"
+expect "V3 puts each day in its own partition" 3 \
+  "$(sql "$CHECK_DB" "select count(distinct tableoid) from stats")"
+
+sql "$CHECK_DB" "insert into stats (app, uri, ip, timestamp) values
+  ('ewm', '/f', '1.1.1.1', now() + interval '40 days'),
+  ('ewm', '/m', '1.1.1.1', now() - interval '50 days')"
+expect "hits for days without a partition land in stats_default" 2 \
+  "$(sql "$CHECK_DB" "select count(*) from stats_default")"
+start_stats --stats.partitions.retention-days=100
+expect "the partition manager moves them out of stats_default" 0 \
+  "$(sql "$CHECK_DB" "select count(*) from stats_default")"
+expect "into partitions for their days" "stats_p$(date -u -d '+40 days' +%Y%m%d)|stats_p$(date -u -d '-50 days' +%Y%m%d)" \
+  "$(sql "$CHECK_DB" "select string_agg(tableoid::regclass::text, '|' order by uri) from stats where uri in ('/f', '/m')")"
+
+sql "$CHECK_DB" "insert into stats (app, uri, ip, timestamp) values ('ewm', '/o', '1.1.1.1', now() - interval '300 days')"
+expect "an old hit lands in stats_default" 1 "$(sql "$CHECK_DB" "select count(*) from stats_default")"
+start_stats --stats.partitions.retention-days=100
+expect "retention deletes it from stats_default" 0 "$(sql "$CHECK_DB" "select count(*) from stats where uri = '/o'")"
+
+sql postgres "drop database $CHECK_DB"
+[ "$FAILED" == 0 ] && echo "all checks passed"
+exit "$FAILED"
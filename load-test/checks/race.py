@@ -0,0 +1,38 @@
+"""20 users request an event with 3 seats and no moderation at the same time: exactly 3 must be confirmed.
+Then 5 pending requests to a moderated event with 3 seats are confirmed in one batch: the 3 oldest get the seats."""
+import concurrent.futures
+
+from ewm import RUN, call, check, expect, finish
+
+owner = expect("POST", "/admin/users", 201, {"name": f"race owner {RUN}", "email": f"ro{RUN}@example.com"})["id"]
+cat = expect("POST", "/admin/categories", 201, {"name": f"race {RUN}"})["id"]
+event = expect("POST", f"/users/{owner}/events", 201, {
+    "annotation": "a" * 30, "category": cat, "description": "d" * 30, "eventDate": "2030-01-01 10:00:00",
+    "location": {"lat": 1, "lon": 1}, "paid": False, "participantLimit": 3, "requestModeration": False,
+    "title": "race event"})["id"]
+expect("PATCH", f"/admin/events/{event}", 200, {"stateAction": "PUBLISH_EVENT"})
+users = [expect("POST", "/admin/users", 201, {"name": f"racer {RUN} {i}", "email": f"r{RUN}_{i}@example.com"})["id"]
+         for i in range(20)]
+
+with concurrent.futures.ThreadPoolExecutor(len(users)) as executor:
+    results = list(executor.map(lambda user: call("POST", f"/users/{user}/requests?eventId={event}"), users))
+created = [body for code, body in results if code == 201]
+check("3 requests created, the rest rejected with 409",
+      len(created) == 3 and all(code in (201, 409) for code, _ in results), sorted(code for code, _ in results))
+check("3 seats confirmed", expect("GET", f"/events/{event}", 200)["confirmedRequests"] == 3)
+expect("PATCH", f"/users/{created[0]['requester']}/requests/{created[0]['id']}/cancel", 200)
+check("cancel releases one seat", expect("GET", f"/events/{event}", 200)["confirmedRequests"] == 2)
+
+moderated = expect("POST", f"/users/{owner}/events", 201, {
+    "annotation": "a" * 30, "category": cat, "description": "d" * 30, "eventDate": "2030-01-01 10:00:00",
+    "location": {"lat": 1, "lon": 1}, "paid": False, "participantLimit": 3, "requestModeration": True,
+    "title": "batch event"})["id"]
+expect("PATCH", f"/admin/events/{moderated}", 200, {"stateAction": "PUBLISH_EVENT"})
+pending = [expect("POST", f"/users/{user}/requests?eventId={moderated}", 201)["id"] for user in users[:5]]
+result = expect("PATCH", f"/users/{owner}/events/{moderated}/requests", 200,
+                {"requestIds": list(reversed(pending)), "status": "CONFIRMED"})
+check("batch confirms the 3 oldest requests and rejects the rest",
+      sorted(r["id"] for r in result["confirmedRequests"]) == pending[:3]
+      and sorted(r["id"] for r in result["rejectedRequests"]) == pending[3:], result)
+check("batch fills the seats", expect("GET", f"/events/{moderated}", 200)["confirmedRequests"] == 3)
+finish()
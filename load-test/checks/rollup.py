@@ -0,0 +1,57 @@
+"""
+Sends hits to the stats server from 6 threads, mixing /hit and /hits, and checks that /stats returns the exact
+totals both before and after StatsRollupJob rolls them up. Start the stats server with a short
+stats.rollup.commit-lag so that ROLLUP_WAIT seconds cover it.
+"""
+import concurrent.futures
+import datetime
+import os
+import time
+import urllib.parse
+
+from ewm import RUN, STATS_URL, check, expect, finish
+
+DAY = datetime.date.today().isoformat()
+URIS = [f"/events/rollup-{RUN}-{i}" for i in range(5)]
+WAIT = float(os.environ.get("ROLLUP_WAIT", "6"))
+
+
+def hit(i):
+    return {"app": "ewm-main-service", "uri": URIS[i % len(URIS)], "ip": f"10.0.0.{i % 37}",
+            "timestamp": f"{DAY} {i % 4:02d}:{i % 60:02d}:00"}
+
+
+def send(worker):
+    sent = []
+    for i in range(60):
+        n = worker * 1000 + i * 10
+        if i % 2:
+            expect("POST", "/hit", 201, hit(n), STATS_URL)
+            sent.append(hit(n))
+        else:
+            batch = [hit(n + j) for j in range(10)]
+            expect("POST", "/hits", 201, batch, STATS_URL)
+            sent.extend(batch)
+    return sent
+
+
+def stats(unique, approximate="false"):
+    query = urllib.parse.urlencode({"start": f"{DAY} 00:00:00", "end": f"{DAY} 04:00:00", "uris": ",".join(URIS),
+                                    "unique": unique, "approximate": approximate})
+    return {s["uri"]: s["hits"] for s in expect("GET", "/stats?" + query, 200, base=STATS_URL)}
+
+
+with concurrent.futures.ThreadPoolExecutor(6) as executor:
+    hits = [h for sent in executor.map(send, range(6)) for h in sent]
+total = {uri: sum(1 for h in hits if h["uri"] == uri) for uri in URIS}
+unique = {uri: len({h["ip"] for h in hits if h["uri"] == uri}) for uri in URIS}
+
+for moment in ("before the rollup", "after the rollup"):
+    if moment == "after the rollup":
+        time.sleep(WAIT)
+    check(f"hits {moment}", stats("false") == total, stats("false"))
+    check(f"exact unique hits {moment}", stats("true") == unique, stats("true"))
+    approximate = stats("true", "true")
+    check(f"approximate unique hits within 2% {moment}",
+          all(abs(approximate.get(uri, 0) - n) <= max(1, n * 0.02) for uri, n in unique.items()), approximate)
+finish()
@@ -0,0 +1,69 @@
+"""End-to-end pass over the main service: users, categories, events, requests, compilations."""
+from ewm import RUN, call, check, expect, finish
+
+users = [expect("POST", "/admin/users", 201, {"name": f"smoke {RUN} {i}", "email": f"s{RUN}_{i}@example.com"})
+         for i in range(3)]
+owner, guest1, guest2 = (user["id"] for user in users)
+cat = expect("POST", "/admin/categories", 201, {"name": f"smoke {RUN}"})["id"]
+unused_cat = expect("POST", "/admin/categories", 201, {"name": f"smoke unused {RUN}"})["id"]
+
+events = []
+for i in range(5):
+    event = expect("POST", f"/users/{owner}/events", 201, {
+        "annotation": f"Annotation number {i} {RUN} long enough", "category": cat,
+        "description": f"Description of event {i} with more words", "eventDate": f"2030-0{i + 1}-01 10:00:00",
+        "location": {"lat": 1.0, "lon": 2.0}, "paid": i % 2 == 0, "participantLimit": 1 if i == 0 else 0,
+        "requestModeration": True, "title": f"Title {i}"})
+    expect("PATCH", f"/admin/events/{event['id']}", 200, {"stateAction": "PUBLISH_EVENT"})
+    events.append(event["id"])
+limited, unlimited = events[0], events[1]
+
+r1 = expect("POST", f"/users/{guest1}/requests?eventId={limited}", 201)
+r2 = expect("POST", f"/users/{guest2}/requests?eventId={limited}", 201)
+check("moderated requests are pending", r1["status"] == r2["status"] == "PENDING")
+result = expect("PATCH", f"/users/{owner}/events/{limited}/requests", 200,
+                {"requestIds": [r1["id"], r2["id"]], "status": "CONFIRMED"})
+check("limit 1 confirms one request and rejects the other",
+      len(result["confirmedRequests"]) == 1 and len(result["rejectedRequests"]) == 1)
+check("initiator cannot request own event",
+      call("POST", f"/users/{owner}/requests?eventId={limited}")[0] == 409)
+r3 = expect("POST", f"/users/{guest1}/requests?eventId={unlimited}", 201)
+check("request to unlimited event is confirmed", r3["status"] == "CONFIRMED")
+expect("PATCH", f"/users/{guest1}/requests/{r3['id']}/cancel", 200)
+
+check("confirmed count of limited event", expect("GET", f"/events/{limited}", 200)["confirmedRequests"] == 1)
+check("cancel releases the seat", expect("GET", f"/events/{unlimited}", 200)["confirmedRequests"] == 0)
+
+listed = expect("GET", f"/events?categories={cat}&from=0&size=10", 200)
+check("public search returns the events by date", [e["id"] for e in listed] == events)
+available = expect("GET", f"/events?categories={cat}&onlyAvailable=true&size=2", 200)
+check("onlyAvailable skips the full event", [e["id"] for e in available] == events[1:3])
+by_views = expect("GET", f"/events?categories={cat}&sort=VIEWS", 200)
+check("sort=VIEWS returns every event", sorted(e["id"] for e in by_views) == events)
+text = expect("GET", f"/events?categories={cat}&text=number%203%20{RUN}", 200)
+check("text search finds one event", [e["id"] for e in text] == [events[3]])
+admin = expect("GET", f"/admin/events?categories={cat}&size=10", 200)
+check("admin search sees the published events", [(e["id"], e["state"]) for e in admin]
+      == [(event, "PUBLISHED") for event in events])
+check("user events", len(expect("GET", f"/users/{owner}/events", 200)) == 5)
+
+comp = expect("POST", "/admin/compilations", 201, {"events": [limited, unlimited], "pinned": True,
+                                                     "title": f"smoke {RUN}"})
+check("compilation has its events", sorted(e["id"] for e in comp["events"]) == sorted([limited, unlimited]))
+pinned = expect("GET", "/compilations?pinned=true&from=0&size=1000", 200)
+check("compilation is listed as pinned", comp["id"] in [c["id"] for c in pinned])
+expect("GET", f"/compilations/{comp['id']}", 200)
+expect("PATCH", f"/admin/compilations/{comp['id']}", 200, {"events": [events[2]], "title": f"smoke 2 {RUN}"})
+updated = expect("GET", f"/compilations/{comp['id']}", 200)
+check("cached compilation is replaced after update",
+      updated["title"] == f"smoke 2 {RUN}" and [e["id"] for e in updated["events"]] == [events[2]])
+
+check("category in use cannot be deleted", call("DELETE", f"/admin/categories/{cat}")[0] == 409)
+expect("DELETE", f"/admin/categories/{unused_cat}", 204)
+expect("GET", f"/categories/{cat}", 200)
+expect("PATCH", f"/admin/categories/{cat}", 200, {"name": f"smoke renamed {RUN}"})
+check("renamed category is read back", expect("GET", f"/categories/{cat}", 200)["name"] == f"smoke renamed {RUN}")
+check("event shows the renamed category",
+      expect("GET", f"/users/{owner}/events/{unlimited}", 200)["category"]["name"] == f"smoke renamed {RUN}")
+check("deleted category is gone", call("GET", f"/categories/{unused_cat}")[0] == 404)
+finish()
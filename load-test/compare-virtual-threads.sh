@@ -0,0 +1,18 @@
+#!/usr/bin/env bash
+# Runs the same load against the docker compose stack with platform threads and then with virtual threads.
+# Usage: load-test/compare-virtual-threads.sh [concurrency] [duration-seconds]
+set -euo pipefail
+
+CONCURRENCY=${1:-1000}
+DURATION=${2:-60}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR="$ROOT/load-test/target/load-test.jar"
+
+for mode in false true; do
+  echo "== spring.threads.virtual.enabled=$mode, $CONCURRENCY clients, ${DURATION}s"
+  VIRTUAL_THREADS=$mode docker compose -f "$ROOT/docker-compose.yml" up -d --force-recreate --wait \
+    stats-server ewm-service
+  java -jar "$JAR" --seed 100 --concurrency 50 --duration 15 > /dev/null
+  java -jar "$JAR" --concurrency "$CONCURRENCY" --duration "$DURATION" --seed 100 \
+    --json "$ROOT/load-test/target/virtual-threads-$mode.json"
+done
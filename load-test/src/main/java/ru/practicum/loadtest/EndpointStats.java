@@ -0,0 +1,54 @@
+package ru.practicum.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and outcomes of one endpoint, collected by a single worker and merged at the end.
+ */
+public class EndpointStats {
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private long errors;
+
+    public void record(long latencyNanos, boolean error) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    public void merge(EndpointStats other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latenciesNanos[i], false);
+        }
+        errors += other.errors;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long errors() {
+        return errors;
+    }
+
+    /**
+     * Latency percentiles in milliseconds for the given quantiles (0..1), using the nearest-rank method.
+     */
+    public double[] percentilesMillis(double... quantiles) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        double[] result = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            if (count == 0) {
+                continue;
+            }
+            int rank = (int) Math.ceil(quantiles[i] * count);
+            result[i] = sorted[Math.min(Math.max(rank, 1), count) - 1] / 1_000_000.0;
+        }
+        return result;
+    }
+}
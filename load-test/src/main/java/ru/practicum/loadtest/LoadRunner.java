@@ -0,0 +1,119 @@
+package ru.practicum.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load: every worker runs on its own virtual thread and sends its next request as soon as the
+ * previous one completes. Runs until the duration elapses or the request budget is spent, whichever comes first.
+ */
+public class LoadRunner {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final Map<String, String> baseUrls;
+    private final Placeholders placeholders;
+
+    public LoadRunner(HttpClient client, Map<String, String> baseUrls, Placeholders placeholders) {
+        this.client = client;
+        this.baseUrls = baseUrls;
+        this.placeholders = placeholders;
+    }
+
+    public Result run(List<RequestTemplate> templates, int concurrency, Duration duration, long maxRequests)
+            throws InterruptedException {
+        int[] cumulativeWeights = new int[templates.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < templates.size(); i++) {
+            totalWeight += Math.max(templates.get(i).weight(), 0);
+            cumulativeWeights[i] = totalWeight;
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("The scenario has no requests with a positive weight");
+        }
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong budget = new AtomicLong(maxRequests);
+        int weightBound = totalWeight;
+        long startedAt = System.nanoTime();
+        List<Future<Map<String, EndpointStats>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    Map<String, EndpointStats> stats = new HashMap<>();
+                    while (System.nanoTime() < deadline && budget.getAndDecrement() > 0) {
+                        int roll = ThreadLocalRandom.current().nextInt(weightBound);
+                        RequestTemplate template = templates.get(pick(cumulativeWeights, roll));
+                        send(template, stats.computeIfAbsent(template.name(), name -> new EndpointStats()));
+                    }
+                    return stats;
+                }));
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        Map<String, EndpointStats> merged = new HashMap<>();
+        for (Future<Map<String, EndpointStats>> worker : workers) {
+            try {
+                worker.get().forEach((name, stats) ->
+                        merged.computeIfAbsent(name, key -> new EndpointStats()).merge(stats));
+            } catch (java.util.concurrent.ExecutionException e) {
+                throw new IllegalStateException("Load worker failed", e.getCause());
+            }
+        }
+        return new Result(merged, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), concurrency);
+    }
+
+    private void send(RequestTemplate template, EndpointStats stats) {
+        String baseUrl = baseUrls.get(template.service());
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("No base url for service " + template.service());
+        }
+        String path = placeholders.resolve(template.path()).replace(" ", "%20");
+        String body = placeholders.resolve(template.body());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(template.method(), body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long started = System.nanoTime();
+        boolean error;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            error = status < 200 || status >= 300;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            error = true;
+        }
+        stats.record(System.nanoTime() - started, error);
+    }
+
+    private static int pick(int[] cumulativeWeights, int roll) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    public record Result(Map<String, EndpointStats> endpoints, long elapsedMillis, int concurrency) {
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point. Run with {@code --help} for the list of options.
+ */
+public class LoadTestApp {
+    private static final String USAGE = """
+            Usage: java -jar load-test.jar [options]
+              --main-url URL        main service base url (default http://localhost:8080)
+              --stats-url URL       stats service base url (default http://localhost:9090)
+              --scenario FILE       JSONL request mix, may be repeated (default: built-in scenario)
+              --spec SERVICE=FILE   derive GET requests from an OpenAPI spec, may be repeated
+              --seed N              create N published events with users, categories and compilations first
+              --concurrency N       number of concurrent workers (default 50)
+              --duration SECONDS    how long to run (default 30)
+              --requests N          stop after N requests in total (default unlimited)
+              --param NAME=VALUE    fixed value for a {NAME} placeholder, may be repeated
+              --json FILE           also write the report as JSON
+            """;
+
+    public static void main(String[] args) throws Exception {
+        String mainUrl = "http://localhost:8080";
+        String statsUrl = "http://localhost:9090";
+        List<Path> scenarioFiles = new ArrayList<>();
+        Map<String, Path> specs = new HashMap<>();
+        Map<String, String> params = new HashMap<>();
+        int seed = 0;
+        int concurrency = 50;
+        Duration duration = Duration.ofSeconds(30);
+        long maxRequests = Long.MAX_VALUE;
+        Path jsonOutput = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--help".equals(option)) {
+                System.out.print(USAGE);
+                return;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option + "\n" + USAGE);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--main-url" -> mainUrl = value;
+                case "--stats-url" -> statsUrl = value;
+                case "--scenario" -> scenarioFiles.add(Path.of(value));
+                case "--spec" -> specs.put(key(value), Path.of(value(value)));
+                case "--seed" -> seed = Integer.parseInt(value);
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "--requests" -> maxRequests = Long.parseLong(value);
+                case "--param" -> params.put(key(value), value(value));
+                case "--json" -> jsonOutput = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + option + "\n" + USAGE);
+            }
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Scenarios scenarios = new Scenarios(mapper);
+        List<RequestTemplate> templates = new ArrayList<>();
+        for (Path file : scenarioFiles) {
+            templates.addAll(scenarios.loadJsonl(file));
+        }
+        for (Map.Entry<String, Path> spec : specs.entrySet()) {
+            templates.addAll(scenarios.loadSpec(spec.getKey(), spec.getValue()));
+        }
+        if (templates.isEmpty()) {
+            templates.addAll(scenarios.loadDefault());
+        }
+
+        SeedData seedData = seed > 0 ? new Seeder(client, mapper, mainUrl).seed(seed) : SeedData.empty();
+        System.out.printf("Seeded %d events, %d users, %d compilations%n", seedData.events().size(),
+                seedData.userIds().size(), seedData.compilationIds().size());
+
+        LoadRunner runner = new LoadRunner(client, Map.of("main", mainUrl, "stats", statsUrl),
+                new Placeholders(seedData, params));
+        LoadRunner.Result result = runner.run(templates, concurrency, duration, maxRequests);
+
+        Report report = new Report(result);
+        report.printTable(System.out);
+        if (jsonOutput != null) {
+            Files.writeString(jsonOutput, report.toJson(mapper));
+        }
+    }
+
+    private static String key(String pair) {
+        int separator = pair.indexOf('=');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Expected NAME=VALUE but got " + pair);
+        }
+        return pair.substring(0, separator);
+    }
+
+    private static String value(String pair) {
+        return pair.substring(pair.indexOf('=') + 1);
+    }
+}
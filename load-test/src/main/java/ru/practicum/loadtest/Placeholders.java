@@ -0,0 +1,56 @@
+package ru.practicum.loadtest;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Resolves {eventId}, {userId}, {initiatorId}, {catId}, {compId}, {now}, {ip} and {random} in request paths and
+ * bodies. The ids come from the seeded data so that a request for an event also uses that event's initiator and
+ * category.
+ */
+public class Placeholders {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final SeedData seedData;
+    private final Map<String, String> overrides;
+
+    public Placeholders(SeedData seedData, Map<String, String> overrides) {
+        this.seedData = seedData;
+        this.overrides = overrides;
+    }
+
+    public String resolve(String value) {
+        if (value == null || value.indexOf('{') < 0) {
+            return value;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SeedData.SeededEvent event = pick(seedData.events(), random);
+        String result = value
+                .replace("{eventId}", override("eventId", event == null ? null : event.id()))
+                .replace("{initiatorId}", override("initiatorId", event == null ? null : event.initiatorId()))
+                .replace("{catId}", override("catId", event == null ? null : event.categoryId()))
+                .replace("{userId}", override("userId", pick(seedData.userIds(), random)))
+                .replace("{compId}", override("compId", pick(seedData.compilationIds(), random)))
+                .replace("{now}", LocalDateTime.now().format(FORMAT))
+                .replace("{ip}", "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256))
+                .replace("{random}", Long.toString(random.nextLong(Long.MAX_VALUE)));
+        for (Map.Entry<String, String> entry : overrides.entrySet()) {
+            result = result.replace("{" + entry.getKey() + "}", entry.getValue());
+        }
+        return result;
+    }
+
+    private String override(String name, Object seeded) {
+        if (overrides.containsKey(name)) {
+            return overrides.get(name);
+        }
+        return seeded == null ? "1" : seeded.toString();
+    }
+
+    private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.isEmpty() ? null : values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prints per-endpoint throughput, error rate and latency percentiles, followed by a total row.
+ */
+public class Report {
+    private static final double[] QUANTILES = {0.50, 0.95, 0.99, 1.0};
+    private static final String ROW = "%-46s %9s %8s %7s %9s %9s %9s %9s %9s%n";
+    private static final String TOTAL = "TOTAL";
+
+    private final LoadRunner.Result result;
+
+    public Report(LoadRunner.Result result) {
+        this.result = result;
+    }
+
+    public void printTable(PrintStream out) {
+        out.printf("concurrency=%d elapsed=%.1fs%n", result.concurrency(), result.elapsedMillis() / 1000.0);
+        out.printf(ROW, "endpoint", "count", "errors", "err%", "rps", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        rows().forEach((name, stats) -> {
+            double[] percentiles = stats.percentilesMillis(QUANTILES);
+            out.printf(ROW, name, stats.count(), stats.errors(), format(errorRate(stats)), format(rps(stats)),
+                    format(percentiles[0]), format(percentiles[1]), format(percentiles[2]), format(percentiles[3]));
+        });
+    }
+
+    public String toJson(ObjectMapper mapper) throws Exception {
+        ObjectNode root = mapper.createObjectNode()
+                .put("concurrency", result.concurrency())
+                .put("elapsedMillis", result.elapsedMillis());
+        ArrayNode endpoints = root.putArray("endpoints");
+        rows().forEach((name, stats) -> {
+            double[] percentiles = stats.percentilesMillis(QUANTILES);
+            endpoints.addObject()
+                    .put("endpoint", name)
+                    .put("count", stats.count())
+                    .put("errors", stats.errors())
+                    .put("errorRate", errorRate(stats))
+                    .put("rps", rps(stats))
+                    .put("p50Millis", percentiles[0])
+                    .put("p95Millis", percentiles[1])
+                    .put("p99Millis", percentiles[2])
+                    .put("maxMillis", percentiles[3]);
+        });
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+    }
+
+    private Map<String, EndpointStats> rows() {
+        Map<String, EndpointStats> rows = new LinkedHashMap<>(new TreeMap<>(result.endpoints()));
+        EndpointStats total = new EndpointStats();
+        result.endpoints().values().forEach(total::merge);
+        rows.put(TOTAL, total);
+        return rows;
+    }
+
+    private double errorRate(EndpointStats stats) {
+        return stats.count() == 0 ? 0 : 100.0 * stats.errors() / stats.count();
+    }
+
+    private double rps(EndpointStats stats) {
+        return result.elapsedMillis() == 0 ? 0 : stats.count() * 1000.0 / result.elapsedMillis();
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
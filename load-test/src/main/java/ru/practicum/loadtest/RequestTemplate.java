@@ -0,0 +1,15 @@
+package ru.practicum.loadtest;
+
+/**
+ * One kind of request in a scenario. Path and body may contain placeholders that are resolved per request
+ * by {@link Placeholders}.
+ *
+ * @param name    endpoint name the results are grouped by
+ * @param service "main" or "stats"
+ * @param method  HTTP method
+ * @param path    path with query string
+ * @param body    JSON body or null
+ * @param weight  relative frequency in the mix
+ */
+public record RequestTemplate(String name, String service, String method, String path, String body, int weight) {
+}
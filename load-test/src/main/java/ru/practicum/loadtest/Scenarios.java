@@ -0,0 +1,137 @@
+package ru.practicum.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Loads request mixes: JSONL files with one {@link RequestTemplate} per line, or GET operations derived from an
+ * OpenAPI spec.
+ */
+public class Scenarios {
+    private static final String DEFAULT_SCENARIO = "/scenarios/default.jsonl";
+    private static final String RANGE_START = "2000-01-01 00:00:00";
+    private static final String RANGE_END = "2100-01-01 00:00:00";
+
+    private final ObjectMapper mapper;
+
+    public Scenarios(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public List<RequestTemplate> loadDefault() throws IOException {
+        try (InputStream in = Scenarios.class.getResourceAsStream(DEFAULT_SCENARIO)) {
+            if (in == null) {
+                throw new IOException("Missing " + DEFAULT_SCENARIO);
+            }
+            return loadJsonl(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+    }
+
+    public List<RequestTemplate> loadJsonl(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return loadJsonl(reader);
+        }
+    }
+
+    private List<RequestTemplate> loadJsonl(BufferedReader reader) throws IOException {
+        List<RequestTemplate> templates = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            JsonNode node = mapper.readTree(line);
+            String method = node.path("method").asText("GET");
+            String path = node.path("path").asText();
+            JsonNode body = node.get("body");
+            templates.add(new RequestTemplate(
+                    node.path("name").asText(method + " " + path),
+                    node.path("service").asText("main"),
+                    method,
+                    path,
+                    body == null || body.isNull() ? null : mapper.writeValueAsString(body),
+                    node.path("weight").asInt(1)));
+        }
+        return templates;
+    }
+
+    /**
+     * One template per GET operation. Path parameters become placeholders and required query parameters get their
+     * default, or a range spanning this century for start/end dates. Operations with other required parameters are
+     * skipped.
+     */
+    public List<RequestTemplate> loadSpec(String service, Path spec) throws IOException {
+        JsonNode paths = mapper.readTree(spec.toFile()).path("paths");
+        List<RequestTemplate> templates = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> iterator = paths.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> entry = iterator.next();
+            JsonNode get = entry.getValue().get("get");
+            if (get == null) {
+                continue;
+            }
+            String path = entry.getKey();
+            StringJoiner query = new StringJoiner("&");
+            boolean supported = true;
+            for (JsonNode parameter : get.path("parameters")) {
+                String name = parameter.path("name").asText();
+                String in = parameter.path("in").asText();
+                if ("path".equals(in)) {
+                    path = path.replace("{" + name + "}", "{" + placeholder(path, name) + "}");
+                } else if ("query".equals(in) && parameter.path("required").asBoolean()) {
+                    String value = requiredValue(name, parameter);
+                    if (value == null) {
+                        supported = false;
+                        break;
+                    }
+                    query.add(name + "=" + value);
+                }
+            }
+            if (supported) {
+                String fullPath = query.length() == 0 ? path : path + "?" + query;
+                templates.add(new RequestTemplate("GET " + entry.getKey(), service, "GET", fullPath, null, 1));
+            }
+        }
+        return templates;
+    }
+
+    private static String placeholder(String path, String name) {
+        if ("id".equals(name) && path.startsWith("/events/")) {
+            return "eventId";
+        }
+        if ("userId".equals(name) && path.contains("{eventId}")) {
+            return "initiatorId";
+        }
+        return name;
+    }
+
+    private static String requiredValue(String name, JsonNode parameter) {
+        JsonNode schema = parameter.path("schema");
+        if (schema.has("default")) {
+            return schema.get("default").asText();
+        }
+        if (parameter.has("example")) {
+            return parameter.get("example").asText();
+        }
+        if (name.toLowerCase().endsWith("start")) {
+            return RANGE_START;
+        }
+        if (name.toLowerCase().endsWith("end")) {
+            return RANGE_END;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.loadtest;
+
+import java.util.List;
+
+public record SeedData(List<Long> userIds, List<SeededEvent> events, List<Long> compilationIds) {
+    public static SeedData empty() {
+        return new SeedData(List.of(), List.of(), List.of());
+    }
+
+    public record SeededEvent(Long id, Long initiatorId, Long categoryId) {
+    }
+}
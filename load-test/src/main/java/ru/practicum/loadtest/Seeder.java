@@ -0,0 +1,104 @@
+package ru.practicum.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates users, categories, published events, a few participation requests and compilations through the
+ * public API of the main service, so that replayed requests hit real rows.
+ */
+public class Seeder {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final String mainUrl;
+
+    public Seeder(HttpClient client, ObjectMapper mapper, String mainUrl) {
+        this.client = client;
+        this.mapper = mapper;
+        this.mainUrl = mainUrl;
+    }
+
+    public SeedData seed(int eventCount) throws IOException, InterruptedException {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        int userCount = Math.max(2, eventCount / 5);
+        int categoryCount = Math.max(1, eventCount / 20);
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            userIds.add(post("/admin/users", Map.of("name", "load user " + run + " " + i,
+                    "email", "load" + run + "_" + i + "@load.test")));
+        }
+        List<Long> categoryIds = new ArrayList<>();
+        for (int i = 0; i < categoryCount; i++) {
+            categoryIds.add(post("/admin/categories", Map.of("name", "load category " + run + " " + i)));
+        }
+
+        List<SeedData.SeededEvent> events = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < eventCount; i++) {
+            Long initiatorId = userIds.get(i % userIds.size());
+            Long categoryId = categoryIds.get(i % categoryIds.size());
+            ObjectNode event = mapper.createObjectNode()
+                    .put("annotation", "Load test annotation number " + i + " of run " + run)
+                    .put("category", categoryId)
+                    .put("description", "Load test description number " + i + " of run " + run)
+                    .put("eventDate", start.plusHours(i).format(FORMAT))
+                    .put("paid", i % 2 == 0)
+                    .put("participantLimit", i % 3 == 0 ? 0 : 10)
+                    .put("requestModeration", i % 4 == 0)
+                    .put("title", "Load event " + i);
+            event.putObject("location").put("lat", 55.75).put("lon", 37.62);
+            Long eventId = post("/users/" + initiatorId + "/events", event);
+            send("PATCH", "/admin/events/" + eventId, Map.of("stateAction", "PUBLISH_EVENT"));
+            events.add(new SeedData.SeededEvent(eventId, initiatorId, categoryId));
+
+            Long requesterId = userIds.get((i + 1) % userIds.size());
+            if (!requesterId.equals(initiatorId)) {
+                send("POST", "/users/" + requesterId + "/requests?eventId=" + eventId, null);
+            }
+        }
+
+        List<Long> compilationIds = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, eventCount / 10); i++) {
+            List<Long> compilationEvents = new ArrayList<>();
+            for (int j = 0; j < 5 && j < events.size(); j++) {
+                compilationEvents.add(events.get((i * 5 + j) % events.size()).id());
+            }
+            compilationIds.add(post("/admin/compilations", Map.of("title", "load compilation " + run + " " + i,
+                    "pinned", i % 2 == 0, "events", compilationEvents)));
+        }
+        return new SeedData(userIds, events, compilationIds);
+    }
+
+    private Long post(String path, Object body) throws IOException, InterruptedException {
+        JsonNode created = mapper.readTree(send("POST", path, body));
+        return created.get("id").asLong();
+    }
+
+    private String send(String method, String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(mainUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException(method + " " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -2,10 +2,14 @@ package ru.practicum;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class MainApplication {
     public static void main(String[] args) {
         SpringApplication.run(MainApplication.class, args);
@@ -0,0 +1,24 @@
+package ru.practicum.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts entries of the caches in {@link CacheNames} after the surrounding transaction commits, so that a read
+ * running before the commit cannot put the old value back for the rest of the entry's life.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheEvictions {
+    private final CacheManager cacheManager;
+
+    public void evictAfterCommit(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            new TransactionAwareCacheDecorator(cache).evict(key);
+        }
+    }
+}
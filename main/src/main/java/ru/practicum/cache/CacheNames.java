@@ -0,0 +1,13 @@
+package ru.practicum.cache;
+
+/**
+ * Spring caches of the main service, configured by {@code spring.cache.*}. They hold names by id rather than
+ * entities, and are evicted through {@link CacheEvictions} once a change commits.
+ */
+public final class CacheNames {
+    public static final String CATEGORIES = "categories";
+    public static final String USERS = "users";
+
+    private CacheNames() {
+    }
+}
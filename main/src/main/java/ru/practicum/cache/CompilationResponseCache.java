@@ -0,0 +1,262 @@
+package ru.practicum.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.CompilationDto;
+import ru.practicum.dto.EventShortDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ready-to-serve responses of the public compilation endpoints. A page is stored as the list of its compilation
+ * ids and each compilation once as a DTO, so editing one compilation or one of its events only drops that
+ * compilation; pages are dropped when a compilation is created, deleted or updated. Evictions run after the
+ * surrounding transaction commits and are also noted on the loads in flight, since those may have read the state
+ * from before the commit: a load removes what it cached if an eviction since it started touched its page, its
+ * compilation or one of that compilation's events. Loads of unrelated compilations keep their results. View counts are refreshed in
+ * place by {@link ru.practicum.job.CompilationViewsRefreshJob}, keeping the expiry time of the refreshed entry.
+ */
+@Component
+public class CompilationResponseCache {
+    private final Cache<PageKey, List<Long>> pages;
+    private final Cache<Long, CachedCompilation> compilations;
+    private final Ticker ticker;
+    private final Set<Load> loads = ConcurrentHashMap.newKeySet();
+    private final long ttlNanos;
+
+    @Autowired
+    public CompilationResponseCache(@Value("${ewm.compilation-cache.maximum-size:1000}") long maximumSize,
+                                    @Value("${ewm.compilation-cache.ttl:10m}") Duration ttl,
+                                    MeterRegistry meterRegistry) {
+        this(maximumSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    CompilationResponseCache(long maximumSize, Duration ttl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.ticker = ticker;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.compilations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new KeepExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.ttlNanos = ttl.toNanos();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "compilationPages",
+                "cache.manager", "compilationResponseCache", "name", "compilationPages");
+        CaffeineCacheMetrics.monitor(meterRegistry, compilations, "compilations",
+                "cache.manager", "compilationResponseCache", "name", "compilations");
+    }
+
+    /**
+     * Returns the cached page, loading the whole page on a miss. Compilations of a cached page that were evicted
+     * since are reloaded one by one.
+     */
+    public List<CompilationDto> getPage(boolean pinned, int from, int size, Supplier<List<CompilationDto>> pageLoader,
+                                        Function<Long, CompilationDto> compilationLoader) {
+        PageKey pageKey = new PageKey(pinned, from, size);
+        List<CachedCompilation> loaded = new ArrayList<>();
+        Load load = startLoad();
+        List<Long> ids;
+        try {
+            ids = pages.get(pageKey, key -> {
+                for (CompilationDto compilation : pageLoader.get()) {
+                    CachedCompilation cached = newEntry(compilation);
+                    compilations.put(compilation.getId(), cached);
+                    loaded.add(cached);
+                }
+                return loaded.stream().map(cached -> cached.compilation().getId()).toList();
+            });
+            if (load.pagesChanged) {
+                pages.asMap().remove(pageKey, ids);
+            }
+            for (CachedCompilation cached : loaded) {
+                if (load.isStale(cached.compilation())) {
+                    compilations.asMap().remove(cached.compilation().getId(), cached);
+                }
+            }
+        } finally {
+            loads.remove(load);
+        }
+        List<CompilationDto> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            result.add(get(id, compilationLoader));
+        }
+        return result;
+    }
+
+    public CompilationDto get(Long compId, Function<Long, CompilationDto> loader) {
+        Load load = startLoad();
+        try {
+            CachedCompilation cached = compilations.get(compId, id -> newEntry(loader.apply(id)));
+            if (load.isStale(cached.compilation())) {
+                compilations.asMap().remove(compId, cached);
+            }
+            return cached.compilation();
+        } finally {
+            loads.remove(load);
+        }
+    }
+
+    public void onCompilationChanged(Long compId) {
+        afterCommit(() -> {
+            for (Load load : loads) {
+                if (compId != null) {
+                    load.changedCompilations.add(compId);
+                }
+                load.pagesChanged = true;
+            }
+            if (compId != null) {
+                compilations.invalidate(compId);
+            }
+            pages.invalidateAll();
+        });
+    }
+
+    public void onEventChanged(Long eventId) {
+        afterCommit(() -> {
+            loads.forEach(load -> load.changedEvents.add(eventId));
+            compilations.asMap().values().removeIf(cached -> cached.compilation().getEvents().stream()
+                    .anyMatch(event -> Objects.equals(event.getId(), eventId)));
+        });
+    }
+
+    /**
+     * Drops everything, for changes such as a category rename that may touch any compilation.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            for (Load load : loads) {
+                load.allChanged = true;
+                load.pagesChanged = true;
+            }
+            compilations.invalidateAll();
+            pages.invalidateAll();
+        });
+    }
+
+    public Set<Long> getCachedEventIds() {
+        Set<Long> eventIds = new HashSet<>();
+        for (CachedCompilation cached : compilations.asMap().values()) {
+            cached.compilation().getEvents().forEach(event -> eventIds.add(event.getId()));
+        }
+        return eventIds;
+    }
+
+    /**
+     * Replaces cached compilations whose view counts differ from {@code views} with updated copies that expire
+     * when the original would have. Entries evicted or replaced concurrently are left alone.
+     */
+    public void updateViews(Map<Long, Integer> views) {
+        for (Map.Entry<Long, CachedCompilation> entry : compilations.asMap().entrySet()) {
+            CachedCompilation cached = entry.getValue();
+            CompilationDto compilation = cached.compilation();
+            boolean changed = compilation.getEvents().stream()
+                    .anyMatch(event -> views.containsKey(event.getId())
+                            && !Objects.equals(views.get(event.getId()), event.getViews()));
+            if (changed) {
+                compilations.asMap().replace(entry.getKey(), cached,
+                        new CachedCompilation(withViews(compilation, views), cached.expiresAt()));
+            }
+        }
+    }
+
+    /**
+     * Registers a load before it reads anything, so that every eviction committed after it started is noted on it.
+     */
+    private Load startLoad() {
+        Load load = new Load();
+        loads.add(load);
+        return load;
+    }
+
+    private CachedCompilation newEntry(CompilationDto compilation) {
+        return new CachedCompilation(compilation, ticker.read() + ttlNanos);
+    }
+
+    private static CompilationDto withViews(CompilationDto compilation, Map<Long, Integer> views) {
+        List<EventShortDto> events = compilation.getEvents().stream()
+                .map(event -> new EventShortDto(event.getAnnotation(), event.getCategory(),
+                        event.getConfirmedRequests(), event.getEventDate(), event.getId(), event.getInitiator(),
+                        event.getPaid(), event.getTitle(), views.getOrDefault(event.getId(), event.getViews()),
+                        event.getLikes(), event.getDislikes()))
+                .toList();
+        return new CompilationDto(compilation.getId(), events, compilation.getPinned(), compilation.getTitle());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record PageKey(boolean pinned, int from, int size) {
+    }
+
+    private record CachedCompilation(CompilationDto compilation, long expiresAt) {
+    }
+
+    /**
+     * Evictions committed while a load is in flight.
+     */
+    private static class Load {
+        private final Set<Long> changedCompilations = ConcurrentHashMap.newKeySet();
+        private final Set<Long> changedEvents = ConcurrentHashMap.newKeySet();
+        private volatile boolean pagesChanged;
+        private volatile boolean allChanged;
+
+        private boolean isStale(CompilationDto compilation) {
+            return allChanged || changedCompilations.contains(compilation.getId())
+                    || compilation.getEvents().stream().anyMatch(event -> changedEvents.contains(event.getId()));
+        }
+    }
+
+    /**
+     * Expires an entry at the time stored in it, so that a views refresh does not extend its life.
+     */
+    private static class KeepExpiry implements Expiry<Long, CachedCompilation> {
+        @Override
+        public long expireAfterCreate(Long key, CachedCompilation value, long currentTime) {
+            return value.expiresAt() - currentTime;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, CachedCompilation value, long currentTime, long currentDuration) {
+            return value.expiresAt() - currentTime;
+        }
+
+        @Override
+        public long expireAfterRead(Long key, CachedCompilation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+@Component
+public class EventViewsCache {
+    private final Cache<Long, Integer> cache;
+    private final Cache<Long, Integer> lastKnown;
+
+    public EventViewsCache(@Value("${ewm.views-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${ewm.views-cache.ttl:30s}") Duration ttl,
+                           @Value("${ewm.views-cache.last-known-maximum-size:100000}") long lastKnownMaximumSize,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(lastKnownMaximumSize)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "eventViews",
+                "cache.manager", "eventViewsCache", "name", "eventViews");
+    }
+
+    public Map<Long, Integer> getAll(Collection<Long> eventIds,
+                                     Function<Set<? extends Long>, Map<Long, Integer>> loader) {
+        return cache.getAll(eventIds, ids -> {
+            Map<Long, Integer> loaded = loader.apply(ids);
+            lastKnown.putAll(loaded);
+            return loaded;
+        });
+    }
+
+    public CompletableFuture<Integer> getAsync(Long eventId, Function<Long, CompletableFuture<Integer>> loader) {
+        Integer views = cache.getIfPresent(eventId);
+        if (views != null) {
+            return CompletableFuture.completedFuture(views);
+        }
+        return loader.apply(eventId).thenApply(loaded -> {
+            cache.put(eventId, loaded);
+            lastKnown.put(eventId, loaded);
+            return loaded;
+        });
+    }
+
+    public void putAll(Map<Long, Integer> views) {
+        cache.putAll(views);
+        lastKnown.putAll(views);
+    }
+
+    /**
+     * Views last loaded from the stats server, kept without expiry to serve while it is unavailable.
+     */
+    public Map<Long, Integer> getLastKnown(Collection<Long> eventIds) {
+        return lastKnown.getAllPresent(eventIds);
+    }
+}
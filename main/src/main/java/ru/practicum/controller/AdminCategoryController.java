@@ -2,14 +2,18 @@ package ru.practicum.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.CategoryDto;
+import ru.practicum.dto.CategoryUsageDto;
 import ru.practicum.service.CategoryService;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/admin/categories")
 @RequiredArgsConstructor
@@ -33,6 +37,13 @@ public class AdminCategoryController {
         categoryService.deleteCategory(catId);
     }
 
+    @GetMapping(value = "/usage")
+    public List<CategoryUsageDto> getCategoryUsage(@RequestParam(required = false, defaultValue = "0") int from,
+                                                   @RequestParam(required = false, defaultValue = "10") int size) {
+        log.info("Getting category usage from {} size {}", from, size);
+        return categoryService.getCategoryUsage(PageRequest.of(from, size));
+    }
+
     @PatchMapping(value = "/{catId}")
     public CategoryDto updateCategory(@PathVariable Long catId, @RequestBody @Valid CategoryDto categoryDto) {
         log.info("Updating category id={}", catId);
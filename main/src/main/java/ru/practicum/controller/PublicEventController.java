@@ -36,11 +36,12 @@ public class PublicEventController {
                                                   @RequestParam(required = false) String sort,
                                                   @RequestParam(required = false, defaultValue = "0") int from,
                                                   @RequestParam(required = false, defaultValue = "10") int size,
+                                                  @RequestParam(required = false) Long afterId,
                                                   HttpServletRequest request) {
         log.info("Getting events by following filters text={}, categories={}, paid={}, rangeStart={}, " +
-                        "rangeEnd={}, onlyAvailable={}, sort={}, from={}, size={}", text, categories, paid, rangeStart,
-                rangeEnd, onlyAvailable, sort, from, size);
+                        "rangeEnd={}, onlyAvailable={}, sort={}, from={}, size={}, afterId={}", text, categories, paid,
+                rangeStart, rangeEnd, onlyAvailable, sort, from, size, afterId);
         return eventService.getEventsByPublicFilters(text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort,
-                PageRequest.of(from, size), request);
+                afterId, PageRequest.of(from, size), request);
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ru.practicum.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryUsageDto {
+    private Long id;
+    private String name;
+    private Long events;
+}
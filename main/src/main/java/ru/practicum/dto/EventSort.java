@@ -0,0 +1,6 @@
+package ru.practicum.dto;
+
+public enum EventSort {
+    EVENT_DATE,
+    VIEWS
+}
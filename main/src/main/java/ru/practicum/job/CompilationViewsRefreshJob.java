@@ -0,0 +1,52 @@
+package ru.practicum.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.cache.CompilationResponseCache;
+import ru.practicum.service.EventService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refreshes view counts of the events in cached compilation responses, so that reads of cached compilations
+ * never wait on the stats server. Views are loaded from the stats server itself rather than the views cache, so
+ * the counts are no older than the refresh interval. Events are looked up in batches to keep each stats request
+ * URL short.
+ */
+@Component
+@Slf4j
+public class CompilationViewsRefreshJob {
+    private final EventService eventService;
+    private final CompilationResponseCache compilationResponseCache;
+    private final int batchSize;
+
+    public CompilationViewsRefreshJob(EventService eventService, CompilationResponseCache compilationResponseCache,
+                                      @Value("${ewm.compilation-cache.views-refresh-batch-size:200}") int batchSize) {
+        this.eventService = eventService;
+        this.compilationResponseCache = compilationResponseCache;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${ewm.compilation-cache.views-refresh-interval-ms:10000}",
+            fixedDelayString = "${ewm.compilation-cache.views-refresh-interval-ms:10000}")
+    public void refreshViews() {
+        List<Long> eventIds = new ArrayList<>(compilationResponseCache.getCachedEventIds());
+        int refreshed = 0;
+        for (int i = 0; i < eventIds.size(); i += batchSize) {
+            List<Long> batch = eventIds.subList(i, Math.min(i + batchSize, eventIds.size()));
+            try {
+                compilationResponseCache.updateViews(eventService.loadViews(batch));
+                refreshed += batch.size();
+            } catch (Exception e) {
+                log.warn("Failed to refresh views of {} events in cached compilations: {}", batch.size(),
+                        e.getMessage());
+            }
+        }
+        if (refreshed > 0) {
+            log.debug("Refreshed views of {} events in cached compilations", refreshed);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.service.EventService;
+
+import java.util.List;
+
+/**
+ * Copies unique view counts of published events from the stats server into events.views, so that
+ * sort=VIEWS can be ordered and paginated by the database. Those responses show the copied counts.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "ewm.views-sync.enabled", havingValue = "true", matchIfMissing = true)
+public class EventViewsSyncJob {
+    private final EventService eventService;
+    private final int batchSize;
+
+    public EventViewsSyncJob(EventService eventService,
+                             @Value("${ewm.views-sync.batch-size:200}") int batchSize) {
+        this.eventService = eventService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${ewm.views-sync.interval-ms:60000}",
+            fixedDelayString = "${ewm.views-sync.interval-ms:60000}")
+    public void syncViews() {
+        long afterId = 0;
+        int synced = 0;
+        try {
+            List<Long> ids;
+            do {
+                ids = eventService.syncViews(afterId, batchSize);
+                if (!ids.isEmpty()) {
+                    afterId = ids.get(ids.size() - 1);
+                    synced += ids.size();
+                }
+            } while (ids.size() == batchSize);
+            log.info("Synced views of {} published events", synced);
+        } catch (Exception e) {
+            log.warn("Failed to sync views after event {}: {}", afterId, e.getMessage());
+        }
+    }
+}
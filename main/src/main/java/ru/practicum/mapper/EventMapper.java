@@ -22,7 +22,6 @@ public class EventMapper {
         return Event.builder()
                 .annotation(newEventDto.getAnnotation())
                 .category(category)
-                .requests(new ArrayList<>())
                 .createdOn(current)
                 .description(newEventDto.getDescription())
                 .eventDate(LocalDateTime.parse(newEventDto.getEventDate(), FORMAT))
@@ -41,7 +40,7 @@ public class EventMapper {
         return EventFullDto.childBuilder()
                 .annotation(event.getAnnotation())
                 .category(CategoryMapper.toDto(event.getCategory()))
-                .confirmedRequests(sumConfirmedRequests(event.getRequests()))
+                .confirmedRequests(event.getConfirmedRequests())
                 .createdOn(event.getCreatedOn().format(FORMAT))
                 .description(event.getDescription())
                 .eventDate(event.getEventDate().format(FORMAT))
@@ -62,7 +61,7 @@ public class EventMapper {
         return EventShortDto.builder()
                 .annotation(event.getAnnotation())
                 .category(CategoryMapper.toDto(event.getCategory()))
-                .confirmedRequests(sumConfirmedRequests(event.getRequests()))
+                .confirmedRequests(event.getConfirmedRequests())
                 .eventDate(event.getEventDate().format(FORMAT))
                 .id(event.getId())
                 .initiator(UserMapper.toShortDto(event.getInitiator()))
@@ -80,7 +79,6 @@ public class EventMapper {
                 .id(event.getId())
                 .annotation(firstOrDefault(updateEventDto.getAnnotation(), event.getAnnotation()))
                 .category(firstOrDefault(category, event.getCategory()))
-                .requests(event.getRequests())
                 .createdOn(event.getCreatedOn())
                 .description(firstOrDefault(updateEventDto.getDescription(), event.getDescription()))
                 .eventDate(Objects.nonNull(updateEventDto.getEventDate())
@@ -89,12 +87,14 @@ public class EventMapper {
                 .location(firstOrDefault(location, event.getLocation()))
                 .paid(Objects.nonNull(updateEventDto.getPaid()) ? updateEventDto.getPaid() : event.getPaid())
                 .participantLimit(firstOrDefault(updateEventDto.getParticipantLimit(), event.getParticipantLimit()))
+                .confirmedRequests(event.getConfirmedRequests())
                 .publishedOn(Objects.nonNull(event.getPublishedOn())
                         ? event.getPublishedOn() : Objects.equals(state, State.PUBLISHED)
                         ? LocalDateTime.now() : null)
                 .requestModeration(firstOrDefault(updateEventDto.getRequestModeration(), event.getRequestModeration()))
                 .state(state)
                 .title(firstOrDefault(updateEventDto.getTitle(), event.getTitle()))
+                .views(event.getViews())
                 .build();
     }
 
@@ -134,15 +134,6 @@ public class EventMapper {
         }
     }
 
-    private static Integer sumConfirmedRequests(List<Request> requests) {
-        int confirmedRequests = 0;
-        for (Request request : requests) {
-            if (Objects.equals(request.getStatus(), RequestStatus.CONFIRMED))
-                confirmedRequests = confirmedRequests + 1;
-        }
-        return confirmedRequests;
-    }
-
     private static void checkEventState(Event event) {
         if (Objects.equals(event.getState(), State.PUBLISHED) || Objects.equals(event.getState(), State.CANCELED)) {
             throw new ConflictException(INCORRECT_EVENT_STATE_MSG, INCORRECT_EVENT_STATE_REASON);
@@ -0,0 +1,43 @@
+package ru.practicum.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.practicum.exception.ApiError;
+
+import java.util.function.Supplier;
+
+/**
+ * Times service calls under a {@code outcome} tag: SUCCESS, CLIENT_ERROR for {@link ApiError}s that end up as
+ * 4xx responses, SERVER_ERROR for anything else.
+ */
+@Component
+public class ServiceMetrics {
+    public static final String SUCCESS = "SUCCESS";
+    public static final String CLIENT_ERROR = "CLIENT_ERROR";
+    public static final String SERVER_ERROR = "SERVER_ERROR";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String name, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = SUCCESS;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = e instanceof ApiError ? CLIENT_ERROR : SERVER_ERROR;
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(name, "outcome", outcome));
+        }
+    }
+
+    public Counter counter(String name, String... tags) {
+        return meterRegistry.counter(name, tags);
+    }
+}
@@ -8,7 +8,6 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Entity
 @Table(name = "events")
@@ -21,25 +20,26 @@ public class Event {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String annotation;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", referencedColumnName = "id")
     private Category category;
-    @OneToMany(mappedBy = "event")
-    private List<Request> requests;
     @Column(name = "created")
     private LocalDateTime createdOn;
     private String description;
     @Column(name = "event_date")
     private LocalDateTime eventDate;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiator_id", referencedColumnName = "id", nullable = false)
     private User initiator;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "location_id", referencedColumnName = "id", nullable = false)
     private Location location;
     private Boolean paid;
     @Column(name = "participant_limit")
     private Integer participantLimit;
+    @Column(name = "confirmed_requests", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer confirmedRequests = 0;
     @Column(name = "published")
     private LocalDateTime publishedOn;
     @Column(name = "request_moderation")
@@ -47,4 +47,7 @@ public class Event {
     @Enumerated(EnumType.STRING)
     private State state;
     private String title;
+    @Column(insertable = false, updatable = false)
+    @Builder.Default
+    private Integer views = 0;
 }
\ No newline at end of file
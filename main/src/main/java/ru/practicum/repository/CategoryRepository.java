@@ -1,9 +1,12 @@
 package ru.practicum.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.cache.CacheNames;
+import ru.practicum.dto.CategoryUsageDto;
 import ru.practicum.model.Category;
 
 import java.util.List;
@@ -16,6 +19,13 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     Optional<Category> findByName(String name);
 
-    @Query("select c from Category c, Event e where e.category = :category")
-    List<Category> findCategoryRelatedToEvents(Category category);
+    @Cacheable(cacheNames = CacheNames.CATEGORIES, key = "#catId")
+    @Query("select c.name from Category c where c.id = :catId")
+    Optional<String> findNameById(Long catId);
+
+    @Query("select new ru.practicum.dto.CategoryUsageDto(c.id, c.name, count(e.id)) " +
+            "from Category c left join Event e on e.category = c " +
+            "group by c.id, c.name " +
+            "order by c.id")
+    List<CategoryUsageDto> findCategoryUsage(PageRequest page);
 }
\ No newline at end of file
@@ -3,13 +3,22 @@ package ru.practicum.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.model.Compilation;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
     List<Compilation> findAllByPinnedIs(boolean pinned, PageRequest page);
+
+    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator", "events.location"})
+    Optional<Compilation> findWithEventsById(Long compId);
+
+    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator", "events.location"})
+    List<Compilation> findAllWithEventsByIdIn(Collection<Long> compIds);
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package ru.practicum.repository;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.model.Event;
 import ru.practicum.model.State;
@@ -10,8 +14,37 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
+    Optional<Event> findById(Long eventId);
+
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
+    List<Event> findAllById(Iterable<Long> eventIds);
+
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
     List<Event> findAllByInitiatorId(Long userId, PageRequest page);
 
+    @EntityGraph(attributePaths = {"category", "initiator", "location"})
     Optional<Event> findByIdAndState(Long eventId, State published);
-}
\ No newline at end of file
+
+    @Query("select e.id from Event e where e.state = :state and e.id > :afterId order by e.id")
+    List<Long> findIdsByStateAndIdGreaterThan(State state, Long afterId, Pageable page);
+
+    // Both counter updates flush pending changes first and clear the persistence context after, so that no
+    // managed Event keeps a stale confirmedRequests.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update events set confirmed_requests = confirmed_requests + :count " +
+            "where id = :eventId and (participant_limit = 0 or confirmed_requests + :count <= participant_limit)",
+            nativeQuery = true)
+    int increaseConfirmedRequests(Long eventId, int count);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update events set confirmed_requests = confirmed_requests - :count " +
+            "where id = :eventId and confirmed_requests >= :count", nativeQuery = true)
+    int decreaseConfirmedRequests(Long eventId, int count);
+
+    @Query("select e.participantLimit - e.confirmedRequests from Event e where e.id = :eventId")
+    int findAvailableSeats(Long eventId);
+
+    boolean existsByCategoryId(Long categoryId);
+}
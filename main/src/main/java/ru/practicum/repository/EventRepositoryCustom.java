@@ -0,0 +1,17 @@
+package ru.practicum.repository;
+
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.dto.EventSort;
+import ru.practicum.model.Event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface EventRepositoryCustom {
+    void updateViews(Map<Long, Integer> views);
+
+    List<Event> findAllByFilters(String text, Boolean paid, List<Long> users, List<String> statesStr,
+                                 List<Integer> categories, LocalDateTime start, LocalDateTime end,
+                                 Boolean onlyAvailable, EventSort sort, Long afterId, PageRequest page);
+}
@@ -0,0 +1,176 @@
+package ru.practicum.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.EventSort;
+import ru.practicum.model.Event;
+import ru.practicum.model.State;
+import ru.practicum.search.TextRankFunctionContributor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+    private static final String UPDATE_VIEWS_SQL = "update events set views = ? where id = ? and views <> ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void updateViews(Map<Long, Integer> views) {
+        if (views.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_VIEWS_SQL, new ArrayList<>(views.entrySet()), views.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setInt(3, entry.getValue());
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Event> findAllByFilters(String text, Boolean paid, List<Long> users, List<String> statesStr,
+                                        List<Integer> categories, LocalDateTime start, LocalDateTime end,
+                                        Boolean onlyAvailable, EventSort sort, Long afterId, PageRequest page) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = builder.createQuery(Event.class);
+        Root<Event> event = query.from(Event.class);
+        event.fetch("category");
+        event.fetch("initiator");
+        event.fetch("location");
+
+        List<Predicate> predicates = new ArrayList<>();
+        ParameterExpression<String> rankText = null;
+
+        if (users != null && !users.isEmpty()) {
+            predicates.add(event.get("initiator").get("id").in(users));
+        }
+
+        if (statesStr != null && !statesStr.isEmpty()) {
+            List<State> states = statesStr.stream()
+                    .map(state -> {
+                        try {
+                            return State.valueOf(state.toUpperCase());
+                        } catch (IllegalArgumentException e) {
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            if (!states.isEmpty()) {
+                predicates.add(event.get("state").in(states));
+            }
+        }
+
+        if (categories != null && !categories.isEmpty()) {
+            predicates.add(event.get("category").get("id").in(categories));
+        }
+
+        if (end != null) {
+            predicates.add(builder.lessThanOrEqualTo(event.get("eventDate"), end));
+        }
+
+        if (start != null) {
+            predicates.add(builder.greaterThanOrEqualTo(event.get("eventDate"), start));
+        }
+
+        if (text != null && !text.isBlank()) {
+            String searchText = "%" + text.toLowerCase() + "%";
+            Predicate annotation = builder.like(builder.lower(event.get("annotation")), searchText);
+            Predicate description = builder.like(builder.lower(event.get("description")), searchText);
+            Predicate title = builder.like(builder.lower(event.get("title")), searchText);
+            predicates.add(builder.or(annotation, description, title));
+            if (sort == null && afterId == null) {
+                rankText = builder.parameter(String.class, "rankText");
+            }
+        }
+
+        if (paid != null) {
+            predicates.add(builder.equal(event.get("paid"), paid));
+        }
+
+        if (Boolean.TRUE.equals(onlyAvailable)) {
+            predicates.add(builder.or(
+                    builder.equal(event.get("participantLimit"), 0),
+                    builder.lessThan(event.get("confirmedRequests"), event.get("participantLimit"))));
+        }
+
+        // Keyset pagination: continue right after the cursor event in (eventDate, id) or (views, id) order. views is
+        // rewritten by EventViewsSyncJob, so a VIEWS cursor that spans a sync can skip or repeat events whose
+        // count changed.
+        if (afterId != null) {
+            predicates.add(Objects.equals(sort, EventSort.VIEWS)
+                    ? after(builder, query, event, "views", Integer.class, afterId, true)
+                    : after(builder, query, event, "eventDate", LocalDateTime.class, afterId, false));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        if (Objects.equals(sort, EventSort.VIEWS)) {
+            query.orderBy(builder.desc(event.get("views")), builder.desc(event.get("id")));
+        } else if (rankText != null) {
+            query.orderBy(builder.desc(textRank(builder, event, rankText)), builder.asc(event.get("eventDate")),
+                    builder.asc(event.get("id")));
+        } else {
+            query.orderBy(builder.asc(event.get("eventDate")), builder.asc(event.get("id")));
+        }
+
+        TypedQuery<Event> typedQuery = entityManager.createQuery(query);
+        if (rankText != null) {
+            typedQuery.setParameter(rankText, text.toLowerCase());
+        }
+        return typedQuery
+                .setFirstResult(afterId != null ? 0 : (int) page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+
+    // A match in the title weighs more than one in the annotation, which weighs more than one in the description.
+    private Expression<Double> textRank(CriteriaBuilder builder, Root<Event> event, Expression<String> text) {
+        Expression<Double> title = rank(builder, event.get("title"), text);
+        Expression<Double> annotation = rank(builder, event.get("annotation"), text);
+        Expression<Double> description = rank(builder, event.get("description"), text);
+        return builder.sum(builder.sum(builder.prod(3.0, title), builder.prod(2.0, annotation)), description);
+    }
+
+    private Expression<Double> rank(CriteriaBuilder builder, Expression<String> column, Expression<String> text) {
+        return builder.function(TextRankFunctionContributor.TEXT_RANK, Double.class, text, column);
+    }
+
+    private <T extends Comparable<? super T>> Predicate after(CriteriaBuilder builder, CriteriaQuery<Event> query,
+                                                              Root<Event> event, String attribute, Class<T> type,
+                                                              Long afterId, boolean descending) {
+        Subquery<T> cursor = query.subquery(type);
+        Root<Event> cursorEvent = cursor.from(Event.class);
+        cursor.select(cursorEvent.get(attribute)).where(builder.equal(cursorEvent.get("id"), afterId));
+
+        Path<T> value = event.get(attribute);
+        Path<Long> id = event.get("id");
+        return descending
+                ? builder.or(builder.lessThan(value, cursor),
+                builder.and(builder.equal(value, cursor), builder.lessThan(id, afterId)))
+                : builder.or(builder.greaterThan(value, cursor),
+                builder.and(builder.equal(value, cursor), builder.greaterThan(id, afterId)));
+    }
+}
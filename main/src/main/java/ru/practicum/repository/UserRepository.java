@@ -1,9 +1,11 @@
 package ru.practicum.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.cache.CacheNames;
 import ru.practicum.model.User;
 
 import java.util.List;
@@ -19,4 +21,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     void deleteUserById(Long id);
 
     Optional<User> findByName(String name);
+
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#userId")
+    @Query("select u.name from User u where u.id = :userId")
+    Optional<String> findNameById(Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package ru.practicum.search;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@code text_rank(query, column)}, the relevance of a lower-case search string to a text column.
+ * On PostgreSQL it is the pg_trgm word similarity of the lower-cased column, which is backed by the
+ * trigram indexes from schema-postgresql.sql. Other databases (H2) fall back to 1 for a substring match
+ * and 0 otherwise.
+ */
+public class TextRankFunctionContributor implements FunctionContributor {
+    public static final String TEXT_RANK = "text_rank";
+
+    private static final String POSTGRESQL_PATTERN = "word_similarity(?1, lower(?2))";
+    private static final String FALLBACK_PATTERN = "case when locate(?1, lower(?2)) > 0 then 1.0 else 0.0 end";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect
+                ? POSTGRESQL_PATTERN : FALLBACK_PATTERN;
+        functionContributions.getFunctionRegistry().registerPattern(TEXT_RANK, pattern,
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.DOUBLE));
+    }
+}
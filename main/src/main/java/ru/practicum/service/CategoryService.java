@@ -2,6 +2,7 @@ package ru.practicum.service;
 
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.dto.CategoryDto;
+import ru.practicum.dto.CategoryUsageDto;
 import ru.practicum.model.Category;
 
 import java.util.List;
@@ -17,5 +18,10 @@ public interface CategoryService {
 
     CategoryDto getCategory(Long catId);
 
-    Category getCategoryEntity(Long catId);
+    /**
+     * Returns a reference to the category for use as an association, without loading it.
+     */
+    Category getCategoryReference(Long catId);
+
+    List<CategoryUsageDto> getCategoryUsage(PageRequest page);
 }
\ No newline at end of file
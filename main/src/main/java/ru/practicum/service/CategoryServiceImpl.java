@@ -5,12 +5,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.cache.CacheEvictions;
+import ru.practicum.cache.CacheNames;
+import ru.practicum.cache.CompilationResponseCache;
 import ru.practicum.dto.CategoryDto;
+import ru.practicum.dto.CategoryUsageDto;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.CategoryMapper;
 import ru.practicum.model.Category;
 import ru.practicum.repository.CategoryRepository;
+import ru.practicum.repository.EventRepository;
 
 import java.util.List;
 import java.util.Objects;
@@ -28,6 +33,9 @@ public class CategoryServiceImpl implements CategoryService {
     private static final String NOT_FOUND_ID_REASON = "Incorrect Id";
 
     private final CategoryRepository categoryRepository;
+    private final EventRepository eventRepository;
+    private final CompilationResponseCache compilationResponseCache;
+    private final CacheEvictions cacheEvictions;
 
     @Override
     public CategoryDto createCategory(CategoryDto categoryDto) {
@@ -41,13 +49,15 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public void deleteCategory(Long catId) {
-        Category category = getCategoryEntity(catId);
+        Category category = categoryRepository.findById(catId)
+                .orElseThrow(() -> new NotFoundException(NOT_FOUND_CATEGORY_MSG, NOT_FOUND_ID_REASON));
 
-        if (!categoryRepository.findCategoryRelatedToEvents(category).isEmpty()) {
+        if (eventRepository.existsByCategoryId(catId)) {
             throw new ConflictException(INCORRECT_DATA_INPUT_MSG, INCORRECT_CATEGORY_REL_REASON);
         }
 
         categoryRepository.deleteById(catId);
+        cacheEvictions.evictAfterCommit(CacheNames.CATEGORIES, catId);
         log.info("Deleted category {} ", category);
     }
 
@@ -57,6 +67,8 @@ public class CategoryServiceImpl implements CategoryService {
             throw new ConflictException(INCORRECT_DATA_INPUT_MSG, INCORRECT_NAME_UNIQUE_REASON);
         }
         Category category = categoryRepository.save(CategoryMapper.toEntity(catId, categoryDto));
+        cacheEvictions.evictAfterCommit(CacheNames.CATEGORIES, catId);
+        compilationResponseCache.invalidateAll();
         log.info("Updated category {}", category);
         return CategoryMapper.toDto(category);
     }
@@ -72,17 +84,31 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional(readOnly = true)
     public CategoryDto getCategory(Long catId) {
-        Category category = getCategoryEntity(catId);
-        return CategoryMapper.toDto(category);
+        String name = getCategoryName(catId);
+        log.info("Found category {}", catId);
+        return CategoryDto.builder()
+                .id(catId)
+                .name(name)
+                .build();
+    }
+
+    @Override
+    public Category getCategoryReference(Long catId) {
+        getCategoryName(catId);
+        return categoryRepository.getReferenceById(catId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Category getCategoryEntity(Long catId) {
-        Category category = categoryRepository.findById(catId)
+    public List<CategoryUsageDto> getCategoryUsage(PageRequest page) {
+        List<CategoryUsageDto> usage = categoryRepository.findCategoryUsage(page);
+        log.info("Found usage of {} categories", usage.size());
+        return usage;
+    }
+
+    private String getCategoryName(Long catId) {
+        return categoryRepository.findNameById(catId)
                 .orElseThrow(() -> new NotFoundException(NOT_FOUND_CATEGORY_MSG, NOT_FOUND_ID_REASON));
-        log.info("Found category {}", category);
-        return category;
     }
 
     private boolean checkCategoryName(CategoryDto categoryDto, Long catId) {
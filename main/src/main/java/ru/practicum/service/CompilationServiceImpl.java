@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.cache.CompilationResponseCache;
 import ru.practicum.dto.CompilationDto;
 import ru.practicum.dto.NewCompilationDto;
 import ru.practicum.dto.UpdateCompilationRequest;
@@ -15,30 +17,43 @@ import ru.practicum.model.Event;
 import ru.practicum.repository.CompilationRepository;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Like {@link EventServiceImpl}, looks up views only after the transaction that loads or saves the compilation ends.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class CompilationServiceImpl implements CompilationService {
     private static final String NOT_FOUND_COMPILATION_MSG = "Compilation not found";
     private static final String NOT_FOUND_ID_REASON = "Incorrect Id";
     private final CompilationRepository compilationRepository;
     private final EventService eventService;
+    private final CompilationResponseCache compilationResponseCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public CompilationDto createCompilation(NewCompilationDto newCompilationDto) {
-        List<Event> events = getEvents(newCompilationDto);
-        Compilation compilation = compilationRepository.save(CompilationMapper.toNewEntity(newCompilationDto, events));
-        log.info("Created compilation {}", compilation);
+        List<Event> events = new ArrayList<>();
+        Compilation compilation = transactionTemplate.execute(status -> {
+            events.addAll(getEvents(newCompilationDto));
+            Compilation saved = compilationRepository.save(CompilationMapper.toNewEntity(newCompilationDto, events));
+            log.info("Created compilation {}", saved);
+            compilationResponseCache.onCompilationChanged(saved.getId());
+            return saved;
+        });
         Map<Long, Integer> views = eventService.getStats(events);
         return CompilationMapper.toDto(compilation, views);
     }
 
     @Override
+    @Transactional
     public void deleteById(Long compId) {
         if (compilationRepository.findById(compId).isPresent()) {
             compilationRepository.deleteById(compId);
+            compilationResponseCache.onCompilationChanged(compId);
         } else {
             throw new NotFoundException(NOT_FOUND_COMPILATION_MSG, NOT_FOUND_ID_REASON);
         }
@@ -47,16 +62,22 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     public CompilationDto updateCompilation(UpdateCompilationRequest updateCompilationDto, Long compId) {
         if (compilationRepository.findById(compId).isPresent()) {
+            // The events are loaded in the same transaction, so the saved compilation refers to loaded instances
+            // that can be mapped after it ends.
             List<Event> events = new ArrayList<>();
-            if (updateCompilationDto != null && updateCompilationDto.getEvents() != null) {
-                List<Long> eventsId = new ArrayList<>(updateCompilationDto.getEvents());
-                events = eventService.findByIds(eventsId);
-            }
-            Compilation compilation1 = compilationRepository.findById(compId)
-                    .orElseThrow(() -> new NotFoundException("", ""));
-            Compilation compilation = CompilationMapper.toEntity(updateCompilationDto, events, compilation1);
-            compilation = compilationRepository.save(compilation);
-            log.info("Updated compilation {}", compilation);
+            Compilation compilation = transactionTemplate.execute(status -> {
+                if (updateCompilationDto != null && updateCompilationDto.getEvents() != null) {
+                    List<Long> eventsId = new ArrayList<>(updateCompilationDto.getEvents());
+                    events.addAll(eventService.findByIds(eventsId));
+                }
+                Compilation compilation1 = compilationRepository.findById(compId)
+                        .orElseThrow(() -> new NotFoundException("", ""));
+                Compilation saved = compilationRepository.save(
+                        CompilationMapper.toEntity(updateCompilationDto, events, compilation1));
+                log.info("Updated compilation {}", saved);
+                compilationResponseCache.onCompilationChanged(compId);
+                return saved;
+            });
             Map<Long, Integer> views = eventService.getStats(events);
             return CompilationMapper.toDto(compilation, views);
         } else {
@@ -65,9 +86,28 @@ public class CompilationServiceImpl implements CompilationService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<CompilationDto> getCompilations(boolean pinned, PageRequest page) {
-        List<Compilation> compilations = compilationRepository.findAllByPinnedIs(pinned, page);
+        return compilationResponseCache.getPage(pinned, page.getPageNumber(), page.getPageSize(),
+                () -> loadCompilations(pinned, page), this::loadCompilation);
+    }
+
+    @Override
+    public CompilationDto getCompilation(Long compId) {
+        return compilationResponseCache.get(compId, this::loadCompilation);
+    }
+
+    private List<CompilationDto> loadCompilations(boolean pinned, PageRequest page) {
+        // The page is read first and its compilations are fetched with their events by id, since fetching a
+        // collection in a paged query would page in memory.
+        List<Long> compIds = compilationRepository.findAllByPinnedIs(pinned, page).stream()
+                .map(Compilation::getId)
+                .toList();
+        Map<Long, Compilation> byId = compilationRepository.findAllWithEventsByIdIn(compIds).stream()
+                .collect(Collectors.toMap(Compilation::getId, Function.identity()));
+        List<Compilation> compilations = compIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
         Set<Event> events = new HashSet<>();
         for (Compilation compilation : compilations) {
             events.addAll(compilation.getEvents());
@@ -76,10 +116,8 @@ public class CompilationServiceImpl implements CompilationService {
         return CompilationMapper.toDtos(compilations, views);
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public CompilationDto getCompilation(Long compId) {
-        Compilation compilation = compilationRepository.findById(compId)
+    private CompilationDto loadCompilation(Long compId) {
+        Compilation compilation = compilationRepository.findWithEventsById(compId)
                 .orElseThrow(() -> new NotFoundException(NOT_FOUND_COMPILATION_MSG, NOT_FOUND_ID_REASON));
         Map<Long, Integer> views = eventService.getStats(compilation.getEvents());
         return CompilationMapper.toDto(compilation, views);
@@ -18,6 +18,21 @@ public interface EventService {
 
     Map<Long, Integer> getStats(List<Event> events);
 
+    /**
+     * Loads views from the stats server, bypassing the views cache, and stores them in it.
+     */
+    Map<Long, Integer> loadViews(List<Long> eventIds);
+
+    /**
+     * Reserves up to {@code count} seats of the event, as many as are left, and returns how many were reserved.
+     * Clears the persistence context.
+     */
+    int reserveConfirmedRequests(Long eventId, int count);
+
+    void releaseConfirmedRequests(Long eventId, int count);
+
+    List<Long> syncViews(Long afterId, int batchSize);
+
     EventFullDto getEventsById(Long userId, Long eventId);
 
     EventFullDto updateEvent(Long userId, Long eventId, UpdateEventDto updateEventUserDto);
@@ -30,8 +45,8 @@ public interface EventService {
                                                String rangeStart, String rangeEnd, PageRequest page);
 
     List<EventShortDto> getEventsByPublicFilters(String text, List<Integer> categories, Boolean paid, String rangeStart,
-                                                 String rangeEnd, Boolean onlyAvailable, String sort, PageRequest of,
-                                                 HttpServletRequest request);
+                                                 String rangeEnd, Boolean onlyAvailable, String sort, Long afterId,
+                                                 PageRequest of, HttpServletRequest request);
 
     EventFullDto getEventById(Long eventId, HttpServletRequest request);
 
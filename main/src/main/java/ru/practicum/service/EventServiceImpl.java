@@ -1,24 +1,26 @@
 package ru.practicum.service;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.cache.CompilationResponseCache;
+import ru.practicum.cache.EventViewsCache;
+import ru.practicum.client.AsyncStatsClient;
 import ru.practicum.client.StatsClient;
+import ru.practicum.client.StatsHitSender;
+import ru.practicum.client.StatsUnavailableException;
 import ru.practicum.dto.*;
 import ru.practicum.exception.BadRequestException;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.EventMapper;
+import ru.practicum.metrics.ServiceMetrics;
 import ru.practicum.model.*;
 import ru.practicum.repository.EventRepository;
 
@@ -26,11 +28,16 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
+/**
+ * Entities are loaded and saved in short transactions, and views are looked up on the stats server only after
+ * they end, so a slow stats server does not hold database connections.
+ */
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 @Slf4j
 public class EventServiceImpl implements EventService {
     private static final Short HOURS_BEFORE_EVENT = 2;
@@ -48,9 +55,11 @@ public class EventServiceImpl implements EventService {
     private static final String INCORRECT_EVENT_DESCRIPTION = "Event description is incorrect";
     private static final String INCORRECT_DATA_INPUT_MSG = "Incorrect data input";
     private static final String NOT_FOUND_EVENT_MSG = "Event not found";
-    private static final String NOT_FOUND_USER_MSG = "User not found";
     private static final String NOT_FOUND_ID_REASON = "Incorrect Id";
     private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String PUBLIC_SEARCH_TIMER = "ewm.events.public.search";
+    private static final String PUBLIC_EVENT_TIMER = "ewm.events.public.get";
+    private static final String VIEWS_FALLBACK_COUNTER = "ewm.events.views.fallback";
 
     private final EventRepository eventRepository;
     private final CategoryService categoryService;
@@ -58,9 +67,12 @@ public class EventServiceImpl implements EventService {
     private final LocationService locationService;
     private final RequestService requestService;
     private final StatsClient statsClient;
-
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final AsyncStatsClient asyncStatsClient;
+    private final StatsHitSender statsHitSender;
+    private final EventViewsCache eventViewsCache;
+    private final CompilationResponseCache compilationResponseCache;
+    private final ServiceMetrics serviceMetrics;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public Optional<Event> findById(Long eventId) {
@@ -70,9 +82,8 @@ public class EventServiceImpl implements EventService {
     @Override
     @Transactional
     public EventFullDto createEvent(Long userId, NewEventDto newEventDto) {
-        Category category = categoryService.getCategoryEntity(newEventDto.getCategory());
-        User initiator = userService.findById(userId)
-                .orElseThrow(() -> new NotFoundException(NOT_FOUND_USER_MSG, NOT_FOUND_ID_REASON));
+        Category category = categoryService.getCategoryReference(newEventDto.getCategory());
+        User initiator = userService.getUserReference(userId);
         Location location = locationService.saveLocation(newEventDto.getLocation());
 
         Event event = EventMapper.toNewEntity(newEventDto, category, initiator, location);
@@ -92,7 +103,6 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<EventShortDto> getEventsByUserId(Long userId, PageRequest page) {
         List<Event> events = eventRepository.findAllByInitiatorId(userId, page);
         Map<Long, Integer> views = getStats(events);
@@ -101,50 +111,83 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Map<Long, Integer> getStats(List<Event> events) {
-        Map<Long, Integer> views = new HashMap<>();
-        for (Event event : events) {
-            Long id = event.getId();
-            Integer view = getStats(id);
-            views.put(id, view);
+        List<Long> ids = events.stream()
+                .map(Event::getId)
+                .collect(Collectors.toList());
+        try {
+            return eventViewsCache.getAll(ids, this::loadStats);
+        } catch (Exception e) {
+            logStatsFailure(ids, e);
+            return fallbackViews(events);
         }
+    }
+
+    @Override
+    public Map<Long, Integer> loadViews(List<Long> eventIds) {
+        Map<Long, Integer> views = loadStats(new HashSet<>(eventIds));
+        eventViewsCache.putAll(views);
         return views;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
+    public int reserveConfirmedRequests(Long eventId, int count) {
+        // One update for the whole batch; when it does not fit, retry with the seats left, which only shrink.
+        int reserved = count;
+        while (reserved > 0 && eventRepository.increaseConfirmedRequests(eventId, reserved) == 0) {
+            reserved = Math.max(0, Math.min(reserved, eventRepository.findAvailableSeats(eventId)));
+        }
+        if (reserved > 0) {
+            compilationResponseCache.onEventChanged(eventId);
+        }
+        log.info("Reserved {} of {} confirmed requests for event {}", reserved, count, eventId);
+        return reserved;
+    }
+
+    @Override
+    @Transactional
+    public void releaseConfirmedRequests(Long eventId, int count) {
+        eventRepository.decreaseConfirmedRequests(eventId, count);
+        compilationResponseCache.onEventChanged(eventId);
+        log.info("Released {} confirmed requests for event {}", count, eventId);
+    }
+
+    @Override
+    public List<Long> syncViews(Long afterId, int batchSize) {
+        List<Long> ids = eventRepository.findIdsByStateAndIdGreaterThan(State.PUBLISHED, afterId,
+                PageRequest.of(0, batchSize));
+        if (!ids.isEmpty()) {
+            eventRepository.updateViews(loadStats(new HashSet<>(ids)));
+        }
+        return ids;
+    }
+
+    @Override
     public EventFullDto getEventsById(Long userId, Long eventId) {
+        CompletableFuture<Integer> viewsLookup = startStatsLookup(eventId);
         Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON));
-        Integer views = getStats(event.getId());
+                .orElseThrow(() -> {
+                    viewsLookup.cancel(false);
+                    return new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON);
+                });
+        Integer views = joinStatsLookup(viewsLookup, event);
         log.info("Getting event {}", event);
         return EventMapper.toFullDto(event, views);
     }
 
     @Override
-    @Transactional
     public EventFullDto updateEvent(Long userId, Long eventId, UpdateEventDto updateEventUserDto) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON));
-
-        checkState(userId, event);
-
-        Category category = Objects.nonNull(updateEventUserDto.getCategory())
-                ? categoryService.getCategoryEntity(updateEventUserDto.getCategory()) : null;
-        Location location = Objects.nonNull(updateEventUserDto.getLocation())
-                ? locationService.saveLocation(updateEventUserDto.getLocation()) : null;
-
-        event = EventMapper.toUpdatedEntity(event, updateEventUserDto, category, location);
-        checkTime(event);
-
-        Integer views = getStats(event.getId());
-        log.info("Found views {}", views);
-
-        event = eventRepository.save(event);
-        log.info("Updated event {}", event);
+        CompletableFuture<Integer> viewsLookup = startStatsLookup(eventId);
+        Event event;
+        try {
+            event = transactionTemplate.execute(status -> saveUpdatedEvent(userId, eventId, updateEventUserDto));
+        } catch (RuntimeException e) {
+            viewsLookup.cancel(false);
+            throw e;
+        }
 
-        views = getStats(event.getId());
+        Integer views = joinStatsLookup(viewsLookup, event);
         log.info("Found views {}", views);
 
         return EventMapper.toFullDto(event, views);
@@ -166,59 +209,63 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<EventFullDto> getEventsByAdminFilters(List<Long> users, List<String> statesStr, List<Integer> categories,
                                                       String rangeStart, String rangeEnd, PageRequest page) {
         LocalDateTime start = parseDateTime(rangeStart);
         LocalDateTime end = parseDateTime(rangeEnd);
 
-        List<Event> events = getEventsByFilters(null, null, users, statesStr, categories, start, end, page);
+        List<Event> events = eventRepository.findAllByFilters(null, null, users, statesStr, categories, start, end,
+                null, EventSort.EVENT_DATE, null, page);
         Map<Long, Integer> views = getStats(events);
         log.info("Getting events {}", events);
         return EventMapper.toFullDtos(events, views);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<EventShortDto> getEventsByPublicFilters(String text, List<Integer> categories, Boolean paid,
                                                         String rangeStart, String rangeEnd, Boolean onlyAvailable,
-                                                        String sort, PageRequest page, HttpServletRequest request) {
-        LocalDateTime start = parseDateTime(rangeStart);
-        LocalDateTime end = parseDateTime(rangeEnd);
-
-        if (start != null && end != null && end.isBefore(start)) {
-            log.info("Date is incorrect");
-            throw new BadRequestException(NOT_FOUND_EVENT_MSG, INCORRECT_DATA_INPUT_MSG);
-        }
-
-        List<Event> events = getEventsByFilters(text, paid, null,
-                List.of(State.PUBLISHED.toString()), categories, start, end, page);
+                                                        String sort, Long afterId, PageRequest page,
+                                                        HttpServletRequest request) {
+        return serviceMetrics.record(PUBLIC_SEARCH_TIMER, () -> {
+            LocalDateTime start = parseDateTime(rangeStart);
+            LocalDateTime end = parseDateTime(rangeEnd);
+
+            if (start != null && end != null && end.isBefore(start)) {
+                log.info("Date is incorrect");
+                throw new BadRequestException(NOT_FOUND_EVENT_MSG, INCORRECT_DATA_INPUT_MSG);
+            }
 
-        if (Boolean.TRUE.equals(onlyAvailable)) {
-            events = events.stream()
-                    .filter(event -> event.getParticipantLimit() == 0 ||
-                            event.getParticipantLimit() > getConfirmedRequestsCount(event))
-                    .collect(Collectors.toList());
-        }
+            EventSort eventSort = parseSort(sort);
+            List<Event> events = eventRepository.findAllByFilters(text, paid, null,
+                    List.of(State.PUBLISHED.toString()), categories, start, end, onlyAvailable, eventSort,
+                    afterId, page);
 
-        Map<Long, Integer> views = getStats(events);
-        saveStats(request);
-        log.info("Getting events {}", events);
+            // sort=VIEWS orders by the count the views sync job stored, so show that count: the live one could
+            // contradict the order.
+            Map<Long, Integer> views = Objects.equals(eventSort, EventSort.VIEWS) ? storedViews(events)
+                    : getStats(events);
+            saveStats(request);
+            log.info("Getting events {}", events);
 
-        List<EventShortDto> shortDtos = EventMapper.toShortDtos(events, views);
-        return sortDto(sort, shortDtos);
+            return EventMapper.toShortDtos(events, views);
+        });
     }
 
     @Override
-    @Transactional(readOnly = true)
     public EventFullDto getEventById(Long eventId, HttpServletRequest request) {
-        Event event = eventRepository.findByIdAndState(eventId, State.PUBLISHED)
-                .orElseThrow(() -> new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON));
-        Integer views = getStats(event.getId());
-        log.info("Found views {}", views);
-        saveStats(request);
-        log.info("Getting event {}", event);
-        return EventMapper.toFullDto(event, views);
+        return serviceMetrics.record(PUBLIC_EVENT_TIMER, () -> {
+            CompletableFuture<Integer> viewsLookup = startStatsLookup(eventId);
+            Event event = eventRepository.findByIdAndState(eventId, State.PUBLISHED)
+                    .orElseThrow(() -> {
+                        viewsLookup.cancel(false);
+                        return new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON);
+                    });
+            Integer views = joinStatsLookup(viewsLookup, event);
+            log.info("Found views {}", views);
+            saveStats(request);
+            log.info("Getting event {}", event);
+            return EventMapper.toFullDto(event, views);
+        });
     }
 
     @Override
@@ -227,20 +274,110 @@ public class EventServiceImpl implements EventService {
         return eventRepository.findAllById(eventsId);
     }
 
-    private Integer getStats(Long id) {
+    private Event saveUpdatedEvent(Long userId, Long eventId, UpdateEventDto updateEventUserDto) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON));
+
+        checkState(userId, event);
+
+        Category category = Objects.nonNull(updateEventUserDto.getCategory())
+                ? categoryService.getCategoryReference(updateEventUserDto.getCategory()) : null;
+        Location location = Objects.nonNull(updateEventUserDto.getLocation())
+                ? locationService.saveLocation(updateEventUserDto.getLocation()) : null;
+
+        event = EventMapper.toUpdatedEntity(event, updateEventUserDto, category, location);
+        checkTime(event);
+
+        event = eventRepository.save(event);
+        // The response is mapped after the transaction, so load what it shows while the session is open.
+        Hibernate.initialize(event.getCategory());
+        Hibernate.initialize(event.getInitiator());
+        Hibernate.initialize(event.getLocation());
+        compilationResponseCache.onEventChanged(eventId);
+        log.info("Updated event {}", event);
+        return event;
+    }
+
+    /**
+     * Starts the views lookup of a single event without waiting for it, so that it overlaps the database query.
+     */
+    private CompletableFuture<Integer> startStatsLookup(Long id) {
         try {
-            ResponseEntity<List<ViewStats>> response = statsClient.getStats(START, END, URI + id, UNIQUE);
-            List<ViewStats> responseStatsDtos = response.getBody();
-            if (responseStatsDtos != null && !responseStatsDtos.isEmpty()) {
-                return responseStatsDtos.get(0).getHits();
-            }
-            return 0;
+            return eventViewsCache.getAsync(id, key -> asyncStatsClient.getStats(START, END, URI + key, UNIQUE)
+                    .thenApply(stats -> stats.stream()
+                            .filter(viewStats -> Objects.equals(viewStats.getUri(), URI + key))
+                            .mapToInt(ViewStats::getHits)
+                            .max()
+                            .orElse(0)));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Integer joinStatsLookup(CompletableFuture<Integer> viewsLookup, Event event) {
+        try {
+            return viewsLookup.join();
         } catch (Exception e) {
-            log.warn("Failed to get stats for event {}: {}", id, e.getMessage());
-            return 0;
+            logStatsFailure(List.of(event.getId()), e);
+            return fallbackViews(List.of(event)).get(event.getId());
         }
     }
 
+    private Map<Long, Integer> storedViews(Collection<Event> events) {
+        Map<Long, Integer> views = new HashMap<>();
+        for (Event event : events) {
+            views.put(event.getId(), event.getViews());
+        }
+        return views;
+    }
+
+    /**
+     * Views to show while the stats server is unavailable: the last count loaded from it, or the count stored
+     * by the views sync job for events not seen since startup.
+     */
+    private Map<Long, Integer> fallbackViews(Collection<Event> events) {
+        Map<Long, Integer> lastKnown = eventViewsCache.getLastKnown(events.stream().map(Event::getId).toList());
+        Map<Long, Integer> views = new HashMap<>();
+        for (Event event : events) {
+            views.put(event.getId(), lastKnown.getOrDefault(event.getId(), event.getViews()));
+        }
+        serviceMetrics.counter(VIEWS_FALLBACK_COUNTER).increment(events.size());
+        return views;
+    }
+
+    private void logStatsFailure(List<Long> ids, Exception e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof StatsUnavailableException) {
+            log.debug("Stats server circuit is open, serving last known views for events {}", ids);
+        } else {
+            log.warn("Failed to get stats for events {}: {}", ids, cause.getMessage());
+        }
+    }
+
+    private Map<Long, Integer> loadStats(Set<? extends Long> ids) {
+        Map<Long, Integer> views = new HashMap<>();
+        Map<String, Long> idsByUri = new HashMap<>();
+        for (Long id : ids) {
+            views.put(id, 0);
+            idsByUri.put(URI + id, id);
+        }
+        if (idsByUri.isEmpty()) {
+            return views;
+        }
+        String uris = String.join(",", idsByUri.keySet());
+        ResponseEntity<List<ViewStats>> response = statsClient.getStats(START, END, uris, UNIQUE);
+        List<ViewStats> responseStatsDtos = response.getBody();
+        if (responseStatsDtos != null) {
+            for (ViewStats viewStats : responseStatsDtos) {
+                Long id = idsByUri.get(viewStats.getUri());
+                if (id != null) {
+                    views.merge(id, viewStats.getHits(), Math::max);
+                }
+            }
+        }
+        return views;
+    }
+
     private void saveStats(HttpServletRequest request) {
         try {
             EndpointHit requestStatsDto = EndpointHit.builder()
@@ -249,7 +386,7 @@ public class EventServiceImpl implements EventService {
                     .ip(request.getRemoteAddr())
                     .timestamp(LocalDateTime.now().format(FORMAT))
                     .build();
-            statsClient.createStats(requestStatsDto);
+            statsHitSender.send(requestStatsDto);
         } catch (Exception e) {
             log.warn("Failed to save stats: {}", e.getMessage());
         }
@@ -285,90 +422,14 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-    private List<EventShortDto> sortDto(String sort, List<EventShortDto> shortDtos) {
+    private EventSort parseSort(String sort) {
         if (Objects.isNull(sort)) {
-            return shortDtos;
-        }
-
-        switch (sort.toUpperCase()) {
-            case "EVENT_DATE":
-                return shortDtos.stream()
-                        .sorted(Comparator.comparing(EventShortDto::getEventDate))
-                        .collect(Collectors.toList());
-            case "VIEWS":
-                return shortDtos.stream()
-                        .sorted(Comparator.comparingInt(EventShortDto::getViews).reversed())
-                        .collect(Collectors.toList());
-            default:
-                return shortDtos;
-        }
-    }
-
-    private int getConfirmedRequestsCount(Event event) {
-        return (int) event.getRequests().stream()
-                .filter(request -> RequestStatus.CONFIRMED.equals(request.getStatus()))
-                .count();
-    }
-
-    private List<Event> getEventsByFilters(String text, Boolean paid, List<Long> users, List<String> statesStr,
-                                           List<Integer> categories, LocalDateTime start, LocalDateTime end,
-                                           PageRequest page) {
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Event> query = builder.createQuery(Event.class);
-        Root<Event> event = query.from(Event.class);
-
-        List<Predicate> predicates = new ArrayList<>();
-
-        if (users != null && !users.isEmpty()) {
-            predicates.add(event.get("initiator").get("id").in(users));
-        }
-
-        if (statesStr != null && !statesStr.isEmpty()) {
-            List<State> states = statesStr.stream()
-                    .map(state -> {
-                        try {
-                            return State.valueOf(state.toUpperCase());
-                        } catch (IllegalArgumentException e) {
-                            return null;
-                        }
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-            if (!states.isEmpty()) {
-                predicates.add(event.get("state").in(states));
-            }
-        }
-
-        if (categories != null && !categories.isEmpty()) {
-            predicates.add(event.get("category").get("id").in(categories));
-        }
-
-        if (end != null) {
-            predicates.add(builder.lessThanOrEqualTo(event.get("eventDate"), end));
-        }
-
-        if (start != null) {
-            predicates.add(builder.greaterThanOrEqualTo(event.get("eventDate"), start));
-        }
-
-        if (text != null && !text.isBlank()) {
-            String searchText = "%" + text.toLowerCase() + "%";
-            Predicate annotation = builder.like(builder.lower(event.get("annotation")), searchText);
-            Predicate description = builder.like(builder.lower(event.get("description")), searchText);
-            Predicate title = builder.like(builder.lower(event.get("title")), searchText);
-            predicates.add(builder.or(annotation, description, title));
+            return null;
         }
-
-        if (paid != null) {
-            predicates.add(builder.equal(event.get("paid"), paid));
+        try {
+            return EventSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return EventSort.EVENT_DATE;
         }
-
-        query.where(predicates.toArray(new Predicate[0]));
-        query.orderBy(builder.asc(event.get("eventDate")));
-
-        return entityManager.createQuery(query)
-                .setFirstResult((int) page.getOffset())
-                .setMaxResults(page.getPageSize())
-                .getResultList();
     }
-}
\ No newline at end of file
+}
@@ -13,9 +13,12 @@ import ru.practicum.exception.BadRequestException;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.RequestMapper;
+import ru.practicum.metrics.ServiceMetrics;
 import ru.practicum.model.*;
 import ru.practicum.repository.RequestRepository;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -34,12 +37,13 @@ public class RequestServiceImpl implements RequestService {
     private static final String INCORRECT_REQUEST_EVENT_STATE_REASON = "Event is not published";
     private static final String NOT_FOUND_REQUEST_MSG = "Request not found";
     private static final String NOT_FOUND_EVENT_MSG = "Event not found";
-    private static final String NOT_FOUND_USER_MSG = "User not found";
     private static final String NOT_FOUND_ID_REASON = "Incorrect Id";
+    private static final String CREATE_REQUEST_TIMER = "ewm.requests.create";
 
     private final RequestRepository requestRepository;
     private EventService eventService;
     private final UserService userService;
+    private final ServiceMetrics serviceMetrics;
 
     @Autowired
     public void setEventService(@Lazy EventService eventService) {
@@ -47,20 +51,27 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
+    @Transactional
     public RequestDto createRequest(Long userId, Long eventId) {
-        User user = userService.findById(userId)
-                .orElseThrow(() -> new NotFoundException(NOT_FOUND_USER_MSG, NOT_FOUND_ID_REASON));
-        log.info("Creating request for user {}", user);
-        if (eventId == null) {
-            throw new BadRequestException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON);
-        }
-        Event event = eventService.findById(eventId)
-                .orElseThrow(() -> new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON));
-        log.info("Creating request for event {}", event);
-        checkRequest(user, event);
-        Request request = requestRepository.save(RequestMapper.toNewEntity(user, event));
-        log.info("Created request {} and reverting to controller as dto", request);
-        return RequestMapper.toDto(request);
+        return serviceMetrics.record(CREATE_REQUEST_TIMER, () -> {
+            User user = userService.getUserReference(userId);
+            log.info("Creating request for user {}", userId);
+            if (eventId == null) {
+                throw new BadRequestException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON);
+            }
+            Event event = eventService.findById(eventId)
+                    .orElseThrow(() -> new NotFoundException(NOT_FOUND_EVENT_MSG, NOT_FOUND_ID_REASON));
+            log.info("Creating request for event {}", event);
+            checkRequest(user, event);
+            Request request = requestRepository.save(RequestMapper.toNewEntity(user, event));
+            log.info("Created request {} and reverting to controller as dto", request);
+            // The reservation detaches the request, which is only read for its ids from here on.
+            if (Objects.equals(request.getStatus(), RequestStatus.CONFIRMED)
+                    && eventService.reserveConfirmedRequests(event.getId(), 1) == 0) {
+                throw new ConflictException(INCORRECT_REQUEST_MSG, INCORRECT_REQUEST_EVENT_LIMIT_REASON);
+            }
+            return RequestMapper.toDto(request);
+        });
     }
 
     @Override
@@ -72,12 +83,18 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
+    @Transactional
     public RequestDto cancelRequest(Long userId, Long requestId) {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException(NOT_FOUND_REQUEST_MSG, NOT_FOUND_ID_REASON));
+        boolean confirmed = Objects.equals(request.getStatus(), RequestStatus.CONFIRMED);
         request.setStatus(RequestStatus.CANCELED);
         log.info("Cancel request {}", request);
-        return RequestMapper.toDto(requestRepository.save(request));
+        request = requestRepository.save(request);
+        if (confirmed) {
+            eventService.releaseConfirmedRequests(request.getEvent().getId(), 1);
+        }
+        return RequestMapper.toDto(request);
     }
 
     @Override
@@ -91,43 +108,43 @@ public class RequestServiceImpl implements RequestService {
     @Override
     @Transactional
     public RequestsByStatusDto updateRequestsStatusByEvent(RequestStatusUpdateDto statusUpdateDto, Event event) {
-        int space = getAvailableSpace(event);
+        if (!hasAvailableSpace(event)) {
+            throw new ConflictException(INCORRECT_REQUEST_UPDATE_MSG, INCORRECT_REQUEST_EVENT_LIMIT_REASON);
+        }
         RequestStatus requestStatus = RequestStatus.valueOf(statusUpdateDto.getStatus().toString());
         List<Long> requestIds = statusUpdateDto.getRequestIds();
-        List<Request> requests = requestRepository.findAllById(requestIds);
-        requests = requestRepository.saveAll(modifyStatusRequests(requests, space, requestStatus));
+        List<Request> requests = findPendingRequests(requestIds);
+        int confirmed = 0;
+        if (Objects.equals(requestStatus, RequestStatus.CONFIRMED)) {
+            confirmed = eventService.reserveConfirmedRequests(event.getId(), requests.size());
+            // The reservation cleared the persistence context, so read the requests again to update them in place.
+            requests = findPendingRequests(requestIds);
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            requests.get(i).setStatus(i < confirmed ? RequestStatus.CONFIRMED : RequestStatus.REJECTED);
+        }
+        requests = requestRepository.saveAll(requests);
         log.info("Changed status for requests {}", requests);
         return RequestMapper.toRequestsByStatusDto(requests);
     }
 
-    private List<Request> modifyStatusRequests(List<Request> requests, int space, RequestStatus requestStatus) {
+    /**
+     * Returns the requests oldest first, so that the earliest ones get the seats left.
+     */
+    private List<Request> findPendingRequests(List<Long> requestIds) {
+        List<Request> requests = new ArrayList<>(requestRepository.findAllById(requestIds));
         for (Request request : requests) {
             if (!Objects.equals(request.getStatus(), RequestStatus.PENDING)) {
                 throw new ConflictException(INCORRECT_REQUEST_STATUS_MSG, INCORRECT_REQUEST_STATUS_REASON);
             }
-            if (space > 0) {
-                request.setStatus(requestStatus);
-                if (Objects.equals(requestStatus, RequestStatus.CONFIRMED)) {
-                    space = space - 1;
-                }
-            } else {
-                request.setStatus(RequestStatus.REJECTED);
-            }
         }
+        requests.sort(Comparator.comparing(Request::getId));
         return requests;
     }
 
-    private Integer getAvailableSpace(Event event) {
+    private boolean hasAvailableSpace(Event event) {
         Integer limit = event.getParticipantLimit();
-        if (limit == 0) {
-            return 1;
-        }
-        List<Request> confirmedRequest = requestRepository.getRequestByStatusIs(RequestStatus.CONFIRMED, event);
-        int availableSpace = limit - confirmedRequest.size();
-        if (availableSpace == 0) {
-            throw new ConflictException(INCORRECT_REQUEST_UPDATE_MSG, INCORRECT_REQUEST_EVENT_LIMIT_REASON);
-        }
-        return availableSpace;
+        return limit == 0 || event.getConfirmedRequests() < limit;
     }
 
     private void checkRequest(User user, Event event) {
@@ -141,7 +158,7 @@ public class RequestServiceImpl implements RequestService {
         if (!Objects.equals(event.getState(), State.PUBLISHED)) {
             throw new ConflictException(INCORRECT_REQUEST_MSG, INCORRECT_REQUEST_EVENT_STATE_REASON);
         }
-        if (getAvailableSpace(event) < 1) {
+        if (!hasAvailableSpace(event)) {
             throw new ConflictException(INCORRECT_REQUEST_MSG, INCORRECT_REQUEST_EVENT_LIMIT_REASON);
         }
     }
@@ -5,7 +5,6 @@ import ru.practicum.dto.UserDto;
 import ru.practicum.model.User;
 
 import java.util.List;
-import java.util.Optional;
 
 public interface UserService {
     UserDto createUser(UserDto userDto);
@@ -14,5 +13,8 @@ public interface UserService {
 
     void deleteUser(Long userId);
 
-    Optional<User> findById(Long userId);
+    /**
+     * Returns a reference to the user for use as an association, without loading it.
+     */
+    User getUserReference(Long userId);
 }
\ No newline at end of file
@@ -5,6 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.cache.CacheEvictions;
+import ru.practicum.cache.CacheNames;
+import ru.practicum.cache.CompilationResponseCache;
 import ru.practicum.dto.UserDto;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
@@ -26,6 +29,8 @@ public class UserServiceImpl implements UserService {
     private static final String NOT_FOUND_ID_REASON = "Incorrect Id";
 
     private final UserRepository userRepository;
+    private final CompilationResponseCache compilationResponseCache;
+    private final CacheEvictions cacheEvictions;
 
     @Override
     public UserDto createUser(UserDto userDto) {
@@ -51,16 +56,20 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long userId) {
-        User user = findById(userId)
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(NOT_FOUND_USER_MSG, NOT_FOUND_ID_REASON));
         userRepository.deleteUserById(userId);
+        cacheEvictions.evictAfterCommit(CacheNames.USERS, userId);
+        compilationResponseCache.invalidateAll();
         log.info("Deleted user {} ", user);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Optional<User> findById(Long userId) {
-        return userRepository.findById(userId);
+    public User getUserReference(Long userId) {
+        if (userRepository.findNameById(userId).isEmpty()) {
+            throw new NotFoundException(NOT_FOUND_USER_MSG, NOT_FOUND_ID_REASON);
+        }
+        return userRepository.getReferenceById(userId);
     }
 
     private void checkUserName(UserDto userDto) {
@@ -1,23 +1,15 @@
-DROP TABLE IF EXISTS compilation_events cascade;
-DROP TABLE IF EXISTS compilations cascade;
-DROP TABLE IF EXISTS requests cascade;
-DROP TABLE IF EXISTS events cascade;
-DROP TABLE IF EXISTS locations cascade;
-DROP TABLE IF EXISTS categories cascade;
-DROP TABLE IF EXISTS users cascade;
-
-CREATE TABLE IF NOT EXISTS users (
+CREATE TABLE users (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
     name  VARCHAR(255)                            NOT NULL,
     email VARCHAR(255) UNIQUE                     NOT NULL
 );
 
-CREATE TABLE IF NOT EXISTS categories (
+CREATE TABLE categories (
     id   BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
     name VARCHAR(128) UNIQUE                  NOT NULL
 );
 
-CREATE TABLE IF NOT EXISTS events (
+CREATE TABLE events (
     id                 BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
     annotation         VARCHAR(2048)                           NOT NULL,
     category_id        BIGINT                                  NOT NULL,
@@ -27,22 +19,27 @@ CREATE TABLE IF NOT EXISTS events (
     published          TIMESTAMP,
     paid               BOOLEAN                                 NOT NULL,
     participant_limit  INT                                     NOT NULL,
+    confirmed_requests INT DEFAULT 0                           NOT NULL,
     request_moderation BOOLEAN                                 NOT NULL,
     title              VARCHAR(128)                            NOT NULL,
     initiator_id       BIGINT                                  NOT NULL,
     location_id        BIGINT                                  NOT NULL,
     state              VARCHAR(32)                             NOT NULL,
+    views              INT DEFAULT 0                           NOT NULL,
     CONSTRAINT events_users_null_fk FOREIGN KEY (initiator_id) REFERENCES users (id),
     CONSTRAINT events_categories_null_fk FOREIGN KEY (category_id) REFERENCES categories (id)
 );
 
-CREATE TABLE IF NOT EXISTS locations (
+CREATE INDEX events_event_date_id_idx ON events (event_date, id);
+CREATE INDEX events_views_id_idx ON events (views, id);
+
+CREATE TABLE locations (
     id  BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
     lat FLOAT                                   NOT NULL,
     lon FLOAT                                   NOT NULL
 );
 
-CREATE TABLE IF NOT EXISTS requests (
+CREATE TABLE requests (
     id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
     status       VARCHAR(32)                             NOT NULL,
     created      TIMESTAMP                               NOT NULL,
@@ -52,13 +49,13 @@ CREATE TABLE IF NOT EXISTS requests (
     CONSTRAINT requests_events_null_fk FOREIGN KEY (event_id) REFERENCES events (id)
 );
 
-CREATE TABLE IF NOT EXISTS compilations (
+CREATE TABLE compilations (
     id     BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
     title  VARCHAR(128)                            NOT NULL,
     pinned BOOLEAN                                 NOT NULL
 );
 
-CREATE TABLE IF NOT EXISTS compilation_events (
+CREATE TABLE compilation_events (
     compilation_id BIGINT NOT NULL,
     event_id       BIGINT NOT NULL,
     CONSTRAINT compilation_events_null_fk FOREIGN KEY (event_id) REFERENCES events (id),
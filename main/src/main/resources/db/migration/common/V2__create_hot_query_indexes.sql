@@ -0,0 +1,9 @@
+CREATE INDEX events_state_event_date_idx ON events (state, event_date);
+CREATE INDEX events_initiator_id_idx ON events (initiator_id);
+CREATE INDEX events_category_id_idx ON events (category_id);
+
+CREATE INDEX requests_event_id_status_idx ON requests (event_id, status);
+CREATE INDEX requests_requester_id_event_id_idx ON requests (requester_id, event_id);
+
+CREATE INDEX compilations_pinned_idx ON compilations (pinned);
+CREATE INDEX compilation_events_compilation_id_idx ON compilation_events (compilation_id);
@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS events_annotation_trgm_idx ON events USING gin (lower(annotation) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS events_description_trgm_idx ON events USING gin (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS events_title_trgm_idx ON events USING gin (lower(title) gin_trgm_ops);
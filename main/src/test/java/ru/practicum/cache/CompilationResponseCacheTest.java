@@ -0,0 +1,126 @@
+package ru.practicum.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.CompilationDto;
+import ru.practicum.dto.EventShortDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompilationResponseCacheTest {
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final CompilationResponseCache cache =
+            new CompilationResponseCache(100, TTL, new SimpleMeterRegistry(), nanos::get);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void cachesLoadedCompilation() {
+        Function<Long, CompilationDto> loader = counting(id -> compilation(id, 10L));
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loadRacingEventEvictionDropsResult() {
+        cache.get(1L, counting(id -> {
+            cache.onEventChanged(10L);
+            return compilation(id, 10L);
+        }));
+
+        cache.get(1L, counting(id -> compilation(id, 10L)));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadRacingUnrelatedEvictionKeepsResult() {
+        cache.get(1L, counting(id -> {
+            cache.onEventChanged(20L);
+            cache.onCompilationChanged(2L);
+            return compilation(id, 10L);
+        }));
+
+        cache.get(1L, counting(id -> compilation(id, 10L)));
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void pageLoadRacingCompilationChangeDropsPageAndThatCompilation() {
+        cache.getPage(false, 0, 10, () -> {
+            loads.incrementAndGet();
+            cache.onCompilationChanged(2L);
+            return List.of(compilation(1L, 10L), compilation(2L, 20L));
+        }, counting(id -> compilation(id, id * 10)));
+        int afterFirstPage = loads.get();
+
+        cache.getPage(false, 0, 10, () -> {
+            loads.incrementAndGet();
+            return List.of(compilation(1L, 10L), compilation(2L, 20L));
+        }, counting(id -> compilation(id, id * 10)));
+
+        assertThat(afterFirstPage).isEqualTo(2);
+        assertThat(loads.get() - afterFirstPage).isEqualTo(1);
+    }
+
+    @Test
+    void eventChangeEvictsCompilationsContainingIt() {
+        cache.get(1L, counting(id -> compilation(id, 10L)));
+        cache.get(2L, counting(id -> compilation(id, 20L)));
+
+        cache.onEventChanged(10L);
+        cache.get(1L, counting(id -> compilation(id, 10L)));
+        cache.get(2L, counting(id -> compilation(id, 20L)));
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void viewsRefreshUpdatesViewsAndKeepsExpiry() {
+        cache.get(1L, counting(id -> compilation(id, 10L)));
+        advance(TTL.minusMinutes(1));
+
+        cache.updateViews(Map.of(10L, 42));
+
+        assertThat(cache.get(1L, counting(id -> compilation(id, 10L))).getEvents().get(0).getViews())
+                .isEqualTo(42);
+        assertThat(loads).hasValue(1);
+        advance(Duration.ofMinutes(1));
+        assertThat(cache.get(1L, counting(id -> compilation(id, 10L))).getEvents().get(0).getViews())
+                .isZero();
+        assertThat(loads).hasValue(2);
+    }
+
+    private Function<Long, CompilationDto> counting(Function<Long, CompilationDto> loader) {
+        return id -> {
+            loads.incrementAndGet();
+            return loader.apply(id);
+        };
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(TimeUnit.NANOSECONDS.convert(duration));
+    }
+
+    private static CompilationDto compilation(Long id, Long eventId) {
+        EventShortDto event = EventShortDto.builder()
+                .id(eventId)
+                .title("event " + eventId)
+                .views(0)
+                .build();
+        return new CompilationDto(id, List.of(event), false, "compilation " + id);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.dto.EndpointHit;
+import ru.practicum.dto.ViewStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking counterpart of {@link StatsClient} on top of the JDK {@link HttpClient}. The client keeps a pool of
+ * keep-alive connections to the stats server and completes the returned futures on its own executor, so callers
+ * can start a lookup and do other work before joining.
+ */
+@Service
+public class AsyncStatsClient {
+    private static final TypeReference<List<ViewStats>> VIEW_STATS_LIST = new TypeReference<>() {
+    };
+
+    private final HttpClient httpClient;
+    private final DefaultUriBuilderFactory uriBuilderFactory;
+    private final ObjectMapper objectMapper;
+    private final Duration requestTimeout;
+    private final StatsCircuitBreaker circuitBreaker;
+    private final StatsClientMetrics metrics;
+
+    public AsyncStatsClient(@Value("${ewm-stats-server.url}") String serverUrl,
+                            @Value("${ewm-stats-server.connect-timeout:2s}") Duration connectTimeout,
+                            @Value("${ewm-stats-server.read-timeout:5s}") Duration requestTimeout,
+                            ObjectMapper objectMapper,
+                            StatsCircuitBreaker circuitBreaker,
+                            StatsClientMetrics metrics) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(serverUrl);
+        this.objectMapper = objectMapper;
+        this.requestTimeout = requestTimeout;
+        this.circuitBreaker = circuitBreaker;
+        this.metrics = metrics;
+    }
+
+    public CompletableFuture<List<ViewStats>> getStats(String start, String end, String uris, String unique) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("start", start);
+        parameters.put("end", end);
+        parameters.put("unique", unique);
+        URI uri;
+        if (Objects.nonNull(uris)) {
+            parameters.put("uris", uris);
+            uri = uriBuilderFactory.expand("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
+        } else {
+            uri = uriBuilderFactory.expand("/stats?start={start}&end={end}&unique={unique}", parameters);
+        }
+        HttpRequest request = request(uri).GET().build();
+        return metrics.recordAsync("get_stats", () -> send(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(response -> {
+                    try {
+                        return objectMapper.readValue(response.body(), VIEW_STATS_LIST);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    public CompletableFuture<Void> createStats(EndpointHit endpointHit) {
+        HttpRequest request;
+        try {
+            request = request(uriBuilderFactory.expand("/hit"))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(endpointHit)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return metrics.recordAsync("create_hit", () -> send(request, HttpResponse.BodyHandlers.discarding()))
+                .thenApply(response -> null);
+    }
+
+    /**
+     * Sends through the circuit breaker and fails non-2xx responses the way {@link org.springframework.web.client.RestTemplate}
+     * does, so that only server errors and I/O failures trip the circuit.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            circuitBreaker.acquire();
+        } catch (StatsUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, handler)
+                .thenApply(response -> {
+                    checkStatus(response);
+                    return response;
+                })
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                    } else {
+                        circuitBreaker.onError(error instanceof CompletionException ? error.getCause() : error);
+                    }
+                });
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private static void checkStatus(HttpResponse<?> response) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        String statusText = "Stats server responded with " + response.statusCode() + " to "
+                + response.request().method() + " " + response.request().uri();
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, statusText, null, null, null);
+        }
+        if (!status.is2xxSuccessful()) {
+            throw HttpServerErrorException.create(status, statusText, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker shared by the stats clients. After {@code failure-threshold} consecutive failures the circuit
+ * opens and calls are rejected at once with {@link StatsUnavailableException}. Once {@code open-duration} has
+ * passed a single probe call is let through: its success closes the circuit, its failure opens it again.
+ * Client errors (4xx) are answers from a healthy server and don't count as failures.
+ */
+@Slf4j
+@Component
+public class StatsCircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    public StatsCircuitBreaker(@Value("${ewm-stats-server.circuit-breaker.enabled:true}") boolean enabled,
+                               @Value("${ewm-stats-server.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${ewm-stats-server.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        acquire();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            onError(e);
+            throw e;
+        }
+        onSuccess();
+        return result;
+    }
+
+    /**
+     * Reserves a call, throwing {@link StatsUnavailableException} while the circuit is open. Every successful
+     * acquire must be followed by {@link #onSuccess()} or {@link #onError(Throwable)}.
+     */
+    public synchronized void acquire() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.OPEN && !Instant.now().isBefore(openedAt.plus(openDuration))) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && probeInFlight)) {
+            throw new StatsUnavailableException("Stats server circuit is " + state);
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void onError(Throwable error) {
+        if (!enabled) {
+            return;
+        }
+        if (error instanceof HttpClientErrorException) {
+            onSuccess();
+            return;
+        }
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = Instant.now();
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State newState) {
+        log.warn("Stats server circuit {} -> {}, consecutive failures: {}", state, newState, consecutiveFailures);
+        state = newState;
+    }
+}
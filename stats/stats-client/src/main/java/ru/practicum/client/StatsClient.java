@@ -1,29 +1,99 @@
 package ru.practicum.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import ru.practicum.dto.EndpointHit;
 import ru.practicum.dto.ViewStats;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * Blocking stats client on a pooled Apache HttpClient. Connect, read and pool-acquire timeouts bound how long a
+ * slow stats server can hold a caller; pool gauges are published as {@code httpcomponents.httpclient.pool.*}
+ * with {@code httpclient=stats-client} when a {@link MeterRegistry} is present. Calls go through the shared
+ * {@link StatsCircuitBreaker}.
+ */
 @Service
-public class StatsClient extends BaseClient {
+public class StatsClient extends BaseClient implements DisposableBean {
+    private final CloseableHttpClient httpClient;
+    private final StatsCircuitBreaker circuitBreaker;
+    private final StatsClientMetrics metrics;
 
     @Autowired
-    public StatsClient(@Value("${ewm-stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(@Value("${ewm-stats-server.url}") String serverUrl,
+                       @Value("${ewm-stats-server.connect-timeout:2s}") Duration connectTimeout,
+                       @Value("${ewm-stats-server.read-timeout:5s}") Duration readTimeout,
+                       @Value("${ewm-stats-server.pool.max-total:50}") int maxTotal,
+                       @Value("${ewm-stats-server.pool.max-per-route:50}") int maxPerRoute,
+                       @Value("${ewm-stats-server.pool.acquire-timeout:1s}") Duration acquireTimeout,
+                       @Value("${ewm-stats-server.pool.idle-timeout:30s}") Duration idleTimeout,
+                       RestTemplateBuilder builder,
+                       StatsCircuitBreaker circuitBreaker,
+                       StatsClientMetrics metrics,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this(serverUrl, builder, circuitBreaker, metrics, createHttpClient(connectTimeout, readTimeout, maxTotal, maxPerRoute,
+                acquireTimeout, idleTimeout, meterRegistry.getIfAvailable()));
+    }
+
+    private StatsClient(String serverUrl, RestTemplateBuilder builder, StatsCircuitBreaker circuitBreaker,
+                        StatsClientMetrics metrics, CloseableHttpClient httpClient) {
         super(
                 builder
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
                         .build()
         );
+        this.httpClient = httpClient;
+        this.circuitBreaker = circuitBreaker;
+        this.metrics = metrics;
+    }
+
+    private static CloseableHttpClient createHttpClient(Duration connectTimeout, Duration readTimeout, int maxTotal,
+                                                        int maxPerRoute, Duration acquireTimeout, Duration idleTimeout,
+                                                        MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+        if (meterRegistry != null) {
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "stats-client")
+                    .bindTo(meterRegistry);
+        }
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
     }
 
     public ResponseEntity<List<ViewStats>> getStats(String start, String end, String uris, String unique) {
@@ -34,23 +104,35 @@ public class StatsClient extends BaseClient {
                     "uris", uris,
                     "unique", unique
             );
-            return get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
+            return metrics.record("get_stats", () -> circuitBreaker.execute(
+                    () -> get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters)));
         } else {
             Map<String, Object> parameters = Map.of(
                     "start", start,
                     "end", end,
                     "unique", unique
             );
-            return get("/stats?start={start}&end={end}&unique={unique}", parameters);
+            return metrics.record("get_stats", () -> circuitBreaker.execute(
+                    () -> get("/stats?start={start}&end={end}&unique={unique}", parameters)));
         }
     }
 
     public void createStats(EndpointHit endpointHit) {
-        ResponseEntity<List<ViewStats>> response = post("/hit", endpointHit);
+        ResponseEntity<List<ViewStats>> response = metrics.record("create_hit",
+                () -> circuitBreaker.execute(() -> post("/hit", endpointHit)));
         if (Objects.isNull(response)) {
             ResponseEntity
                     .status(HttpStatus.CREATED)
                     .body("Информация сохранена");
         }
     }
-}
\ No newline at end of file
+
+    public void createStats(List<EndpointHit> endpointHits) {
+        metrics.record("create_hits", () -> circuitBreaker.execute(() -> post("/hits", endpointHits)));
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        httpClient.close();
+    }
+}
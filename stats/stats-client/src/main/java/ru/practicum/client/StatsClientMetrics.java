@@ -0,0 +1,68 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Times stats server calls as {@code stats.client.requests} tagged with the operation, the client (sync or
+ * async) and the outcome: SUCCESS, CLIENT_ERROR, SERVER_ERROR for 5xx and I/O failures, or REJECTED while the
+ * circuit is open. Does nothing when no {@link MeterRegistry} is configured.
+ */
+@Component
+public class StatsClientMetrics {
+    private static final String TIMER = "stats.client.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatsClientMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    public <T> T record(String operation, Supplier<T> call) {
+        if (meterRegistry == null) {
+            return call.get();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = call.get();
+            stop(sample, operation, "sync", null);
+            return result;
+        } catch (RuntimeException e) {
+            stop(sample, operation, "sync", e);
+            throw e;
+        }
+    }
+
+    public <T> CompletableFuture<T> recordAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        if (meterRegistry == null) {
+            return call.get();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return call.get().whenComplete((result, error) -> stop(sample, operation, "async", error));
+    }
+
+    private void stop(Timer.Sample sample, String operation, String client, Throwable error) {
+        sample.stop(meterRegistry.timer(TIMER, "operation", operation, "client", client, "outcome", outcome(error)));
+    }
+
+    private static String outcome(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null) {
+            return "SUCCESS";
+        }
+        if (cause instanceof StatsUnavailableException) {
+            return "REJECTED";
+        }
+        if (cause instanceof HttpClientErrorException) {
+            return "CLIENT_ERROR";
+        }
+        return "SERVER_ERROR";
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EndpointHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends hits to the stats server either inline or, in async mode, through a bounded queue flushed in batches.
+ * Hits that don't fit into the queue within {@code offer-timeout-ms} are dropped and counted. The flush thread is
+ * virtual when {@code spring.threads.virtual.enabled} is set, so a slow stats server parks it instead of a carrier.
+ */
+@Slf4j
+@Component
+public class StatsHitSender implements DisposableBean {
+    private final StatsClient statsClient;
+    private final boolean async;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<EndpointHit> queue;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public StatsHitSender(StatsClient statsClient,
+                          @Value("${ewm-stats-server.hits.async:false}") boolean async,
+                          @Value("${ewm-stats-server.hits.queue-capacity:10000}") int queueCapacity,
+                          @Value("${ewm-stats-server.hits.batch-size:500}") int batchSize,
+                          @Value("${ewm-stats-server.hits.flush-interval-ms:200}") long flushIntervalMs,
+                          @Value("${ewm-stats-server.hits.offer-timeout-ms:0}") long offerTimeoutMs,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.statsClient = statsClient;
+        this.async = async;
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (async) {
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name("stats-hit-sender").factory()
+                    : Thread.ofPlatform().name("stats-hit-sender").daemon().factory();
+            executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            executor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            executor = null;
+        }
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("stats.hits.sent", sentCount, AtomicLong::get).register(registry);
+        FunctionCounter.builder("stats.hits.dropped", droppedCount, AtomicLong::get).register(registry);
+        FunctionCounter.builder("stats.hits.failed", failedCount, AtomicLong::get).register(registry);
+        Gauge.builder("stats.hits.queue.size", queue, BlockingQueue::size).register(registry);
+    }
+
+    public void send(EndpointHit endpointHit) {
+        if (!async) {
+            statsClient.createStats(endpointHit);
+            sentCount.incrementAndGet();
+            return;
+        }
+        boolean accepted;
+        try {
+            accepted = queue.offer(endpointHit, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            long dropped = droppedCount.incrementAndGet();
+            log.debug("Stats queue is full, dropped hit {}, total dropped {}", endpointHit, dropped);
+        }
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void destroy() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    void flush() {
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                statsClient.createStats(batch);
+                sentCount.addAndGet(batch.size());
+            } catch (Exception e) {
+                failedCount.addAndGet(batch.size());
+                log.warn("Failed to send {} hits to stats server: {}", batch.size(), e.getMessage());
+                return;
+            }
+            batch.clear();
+        }
+    }
+}
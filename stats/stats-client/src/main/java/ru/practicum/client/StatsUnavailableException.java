@@ -0,0 +1,10 @@
+package ru.practicum.client;
+
+/**
+ * Thrown instead of calling the stats server while its circuit is open.
+ */
+public class StatsUnavailableException extends RuntimeException {
+    public StatsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatsCircuitBreakerTest {
+    private static final int THRESHOLD = 3;
+
+    @Test
+    void opensAfterThresholdConsecutiveFailures() {
+        StatsCircuitBreaker breaker = new StatsCircuitBreaker(true, THRESHOLD, Duration.ofHours(1));
+
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            fail(breaker, new ResourceAccessException("timeout"));
+        }
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+
+        fail(breaker, new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(StatsUnavailableException.class);
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        StatsCircuitBreaker breaker = new StatsCircuitBreaker(true, THRESHOLD, Duration.ofHours(1));
+
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            fail(breaker, new ResourceAccessException("timeout"));
+        }
+        assertThat(breaker.execute(() -> "ok")).isEqualTo("ok");
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            fail(breaker, new ResourceAccessException("timeout"));
+        }
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void clientErrorsAreNotFailures() {
+        StatsCircuitBreaker breaker = new StatsCircuitBreaker(true, THRESHOLD, Duration.ofHours(1));
+
+        for (int i = 0; i < THRESHOLD * 2; i++) {
+            fail(breaker, new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+        }
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void letsSingleProbeThroughWhenHalfOpen() {
+        StatsCircuitBreaker breaker = openBreaker();
+
+        breaker.acquire();
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(StatsUnavailableException.class);
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+        breaker.acquire();
+        breaker.acquire();
+    }
+
+    @Test
+    void failedProbeOpensCircuitAgain() {
+        StatsCircuitBreaker breaker = openBreaker();
+
+        breaker.acquire();
+        breaker.onError(new ResourceAccessException("timeout"));
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void disabledBreakerNeverOpens() {
+        StatsCircuitBreaker breaker = new StatsCircuitBreaker(false, THRESHOLD, Duration.ofHours(1));
+
+        for (int i = 0; i < THRESHOLD * 2; i++) {
+            fail(breaker, new ResourceAccessException("timeout"));
+        }
+
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.CLOSED);
+        assertThat(breaker.execute(() -> "ok")).isEqualTo("ok");
+    }
+
+    /**
+     * Returns a breaker that has just opened and lets a probe through on the next call.
+     */
+    private static StatsCircuitBreaker openBreaker() {
+        StatsCircuitBreaker breaker = new StatsCircuitBreaker(true, THRESHOLD, Duration.ZERO);
+        for (int i = 0; i < THRESHOLD; i++) {
+            fail(breaker, new ResourceAccessException("timeout"));
+        }
+        assertThat(breaker.getState()).isEqualTo(StatsCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void fail(StatsCircuitBreaker breaker, RuntimeException error) {
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            throw error;
+        })).isSameAs(error);
+    }
+}
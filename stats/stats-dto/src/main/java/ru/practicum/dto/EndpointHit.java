@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 public class EndpointHit {
-    private Integer id;
+    private Long id;
     private String app;
     private String uri;
     private String ip;
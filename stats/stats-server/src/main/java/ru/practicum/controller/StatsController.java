@@ -1,5 +1,6 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -10,10 +11,14 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.service.StatsService;
 import ru.practicum.dto.EndpointHit;
 import ru.practicum.dto.ViewStats;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -23,14 +28,36 @@ import java.util.List;
 @Slf4j
 public class StatsController {
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/stats")
     public List<ViewStats> get(@RequestParam(name = "start") String start,
                                @RequestParam(name = "end") String end,
                                @RequestParam(name = "uris", required = false) List<String> uris,
-                               @RequestParam(name = "unique", defaultValue = "false") Boolean unique) {
-        log.info("Getting stats from {} to {}, uris = {}, unique = {}", start, end, uris, unique);
-        return statsService.getStats(start, end, uris, unique);
+                               @RequestParam(name = "unique", defaultValue = "false") Boolean unique,
+                               @RequestParam(name = "approximate", defaultValue = "false") Boolean approximate) {
+        log.info("Getting stats from {} to {}, uris = {}, unique = {}, approximate = {}", start, end, uris, unique,
+                approximate);
+        return statsService.getStats(start, end, uris, unique, approximate);
+    }
+
+    @GetMapping(value = "/stats/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "start") String start,
+            @RequestParam(name = "end") String end,
+            @RequestParam(name = "uris", required = false) List<String> uris,
+            @RequestParam(name = "unique", defaultValue = "false") Boolean unique) {
+        log.info("Exporting stats from {} to {}, uris = {}, unique = {}", start, end, uris, unique);
+        StreamingResponseBody body = out -> {
+            try {
+                statsService.exportStats(start, end, uris, unique, viewStats -> writeLine(out, viewStats));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping("/hit")
@@ -39,4 +66,20 @@ public class StatsController {
         log.info("Creating stats {}", endpointHit);
         return statsService.createStats(endpointHit);
     }
+
+    @PostMapping("/hits")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createAll(@RequestBody List<EndpointHit> endpointHits) {
+        log.info("Creating {} stats", endpointHits.size());
+        statsService.createStats(endpointHits);
+    }
+
+    private void writeLine(OutputStream out, ViewStats viewStats) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(viewStats));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
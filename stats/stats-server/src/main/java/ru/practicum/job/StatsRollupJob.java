@@ -0,0 +1,69 @@
+package ru.practicum.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.service.RollupService;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Rolls recorded hits up into stats_rollup in batches, off the ingestion path. Hits not rolled up yet are read raw
+ * by RollupServiceImpl, so the delay only affects how much raw data a range query scans.
+ * <p>
+ * Stats ids come from a sequence, so a hit can commit after one with a higher id. Instead of locking the table, each
+ * run notes the highest committed id and rolls up only to the id noted at least {@code stats.rollup.commit-lag}
+ * ago. /hit inserts a single row and /hits batches time out well within that lag
+ * ({@code stats.insert.timeout-seconds}), so every hit up to that id has committed or rolled back by then.
+ */
+@Component
+@Slf4j
+public class StatsRollupJob {
+    private final RollupService rollupService;
+    private final int batchSize;
+    private final long commitLagNanos;
+    private final Deque<MaxIdSeen> seen = new ArrayDeque<>();
+
+    public StatsRollupJob(RollupService rollupService,
+                          @Value("${stats.rollup.batch-size:5000}") int batchSize,
+                          @Value("${stats.rollup.commit-lag:30s}") Duration commitLag) {
+        this.rollupService = rollupService;
+        this.batchSize = batchSize;
+        this.commitLagNanos = commitLag.toNanos();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.rollup.interval-ms:1000}")
+    public void rollUp() {
+        if (!rollupService.isEnabled()) {
+            return;
+        }
+        int rolledUp = 0;
+        try {
+            long now = System.nanoTime();
+            seen.addLast(new MaxIdSeen(now, rollupService.findMaxId()));
+            long horizon = 0;
+            while (!seen.isEmpty() && now - seen.peekFirst().nanos() >= commitLagNanos) {
+                horizon = seen.removeFirst().maxId();
+            }
+            if (horizon == 0) {
+                return;
+            }
+            int batch;
+            do {
+                batch = rollupService.rollUp(horizon, batchSize);
+                rolledUp += batch;
+            } while (batch == batchSize);
+            if (rolledUp > 0) {
+                log.debug("Rolled up {} hits", rolledUp);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to roll up hits after {} rolled up: {}", rolledUp, e.getMessage());
+        }
+    }
+
+    private record MaxIdSeen(long nanos, long maxId) {
+    }
+}
@@ -6,6 +6,8 @@ import ru.practicum.model.Stats;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 public class StatsMapper {
     private static final DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -19,6 +21,14 @@ public class StatsMapper {
                 .build();
     }
 
+    public static List<Stats> toEntities(List<EndpointHit> endpointHits) {
+        List<Stats> stats = new ArrayList<>();
+        for (EndpointHit endpointHit : endpointHits) {
+            stats.add(toEntity(endpointHit));
+        }
+        return stats;
+    }
+
     public static ViewStats toResponseDto(String app, String uri, Integer hits) {
         return ViewStats.builder()
                 .app(app)
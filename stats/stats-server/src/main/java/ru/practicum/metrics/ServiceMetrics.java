@@ -0,0 +1,57 @@
+package ru.practicum.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+
+/**
+ * Times service calls under a {@code outcome} tag: SUCCESS, CLIENT_ERROR for the exceptions the handler turns
+ * into 400 responses, SERVER_ERROR for anything else.
+ */
+@Component
+public class ServiceMetrics {
+    public static final String SUCCESS = "SUCCESS";
+    public static final String CLIENT_ERROR = "CLIENT_ERROR";
+    public static final String SERVER_ERROR = "SERVER_ERROR";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String name, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = SUCCESS;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = isClientError(e) ? CLIENT_ERROR : SERVER_ERROR;
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(name, "outcome", outcome));
+        }
+    }
+
+    public void record(String name, Runnable call) {
+        record(name, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public Counter counter(String name, String... tags) {
+        return meterRegistry.counter(name, tags);
+    }
+
+    private static boolean isClientError(RuntimeException e) {
+        return e instanceof DateTimeParseException
+                || e instanceof IllegalArgumentException
+                || e instanceof DataIntegrityViolationException;
+    }
+}
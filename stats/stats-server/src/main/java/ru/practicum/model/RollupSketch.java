@@ -0,0 +1,9 @@
+package ru.practicum.model;
+
+public interface RollupSketch {
+    String getApp();
+
+    String getUri();
+
+    byte[] getIpSketch();
+}
@@ -0,0 +1,30 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stats_rollup", uniqueConstraints = @UniqueConstraint(columnNames = {"app", "uri", "bucket"}))
+@DynamicUpdate
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String app;
+    private String uri;
+    private LocalDateTime bucket;
+    private Long hits;
+    @Column(name = "ip_sketch", length = HyperLogLog.REGISTERS)
+    private byte[] ipSketch;
+}
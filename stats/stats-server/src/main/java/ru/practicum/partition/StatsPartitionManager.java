@@ -0,0 +1,153 @@
+package ru.practicum.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Keeps the daily partitions of the stats table: creates them a few days ahead, moves hits that landed in
+ * stats_default into a partition for their day and, when a retention period is set, drops or detaches the
+ * partitions that ended before it and deletes expired rows from stats_default. Does nothing unless the database is
+ * PostgreSQL and stats is partitioned (see db/migration/postgresql/V3__partition_stats_by_day.sql).
+ */
+@Component
+@Slf4j
+public class StatsPartitionManager {
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String PARTITION_PREFIX = "stats_p";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String IS_PARTITIONED_SQL =
+            "select count(*) from pg_partitioned_table where partrelid = to_regclass('stats')";
+    private static final String PARTITIONS_SQL = "select c.relname from pg_inherits i " +
+            "join pg_class c on c.oid = i.inhrelid where i.inhparent = to_regclass('stats') and c.relname like ?";
+    private static final String CREATE_SQL =
+            "create table if not exists %s partition of stats for values from ('%s') to ('%s')";
+    private static final String DEFAULT_DAYS_SQL = "select distinct cast(timestamp as date) from stats_default";
+    private static final String DEFAULT_HAS_ROWS_SQL =
+            "select exists (select 1 from stats_default where timestamp >= ? and timestamp < ?)";
+    private static final String CREATE_DETACHED_SQL = "create table %s (like stats including defaults)";
+    private static final String MOVE_FROM_DEFAULT_SQL = "with moved as (delete from stats_default " +
+            "where timestamp >= ? and timestamp < ? returning id, app, uri, ip, timestamp) " +
+            "insert into %s (id, app, uri, ip, timestamp) select id, app, uri, ip, timestamp from moved";
+    private static final String ATTACH_SQL = "alter table stats attach partition %s for values from ('%s') to ('%s')";
+    private static final String PURGE_DEFAULT_SQL = "delete from stats_default where timestamp < ?";
+    private static final String DROP_SQL = "drop table %s";
+    private static final String DETACH_SQL = "alter table stats detach partition %s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int createAheadDays;
+    private final int retentionDays;
+    private final RetentionMode retentionMode;
+
+    public StatsPartitionManager(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${stats.partitions.enabled:true}") boolean enabled,
+                                 @Value("${stats.partitions.create-ahead-days:7}") int createAheadDays,
+                                 @Value("${stats.partitions.retention-days:0}") int retentionDays,
+                                 @Value("${stats.partitions.retention-mode:DROP}") RetentionMode retentionMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.createAheadDays = createAheadDays;
+        this.retentionDays = retentionDays;
+        this.retentionMode = retentionMode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stats.partitions.cron:0 5 0 * * *}")
+    public void maintain() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate keepFrom = retentionDays > 0 ? today.minusDays(retentionDays) : LocalDate.MIN;
+        for (int i = 0; i <= createAheadDays; i++) {
+            createPartition(today.plusDays(i));
+        }
+        for (LocalDate day : jdbcTemplate.queryForList(DEFAULT_DAYS_SQL, LocalDate.class)) {
+            if (!day.isBefore(keepFrom)) {
+                createPartition(day);
+            }
+        }
+        if (retentionDays > 0) {
+            expirePartitions(keepFrom);
+            int purged = jdbcTemplate.update(PURGE_DEFAULT_SQL, keepFrom.atStartOfDay());
+            if (purged > 0) {
+                log.info("Deleted {} expired rows from stats_default", purged);
+            }
+        }
+    }
+
+    /**
+     * Creates the partition of a day. PostgreSQL refuses to add a partition while stats_default holds rows for its
+     * range, so such rows are first moved into a standalone table that is then attached as the partition.
+     */
+    private void createPartition(LocalDate day) {
+        String partition = PARTITION_PREFIX + day.format(SUFFIX_FORMAT);
+        try {
+            Boolean hasDefaultRows = jdbcTemplate.queryForObject(DEFAULT_HAS_ROWS_SQL, Boolean.class,
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            if (!Boolean.TRUE.equals(hasDefaultRows)) {
+                jdbcTemplate.execute(String.format(CREATE_SQL, partition, day, day.plusDays(1)));
+                return;
+            }
+            int moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute(String.format(CREATE_DETACHED_SQL, partition));
+                int rows = jdbcTemplate.update(String.format(MOVE_FROM_DEFAULT_SQL, partition),
+                        day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                jdbcTemplate.execute(String.format(ATTACH_SQL, partition, day, day.plusDays(1)));
+                return rows;
+            });
+            log.info("Created stats partition {} with {} rows moved from stats_default", partition, moved);
+        } catch (Exception e) {
+            log.warn("Failed to create stats partition {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private void expirePartitions(LocalDate keepFrom) {
+        List<String> partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, PARTITION_PREFIX + "%");
+        for (String partition : partitions) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (day.plusDays(1).isAfter(keepFrom)) {
+                continue;
+            }
+            String sql = retentionMode == RetentionMode.DETACH ? DETACH_SQL : DROP_SQL;
+            jdbcTemplate.execute(String.format(sql, partition));
+            log.info("Expired stats partition {} ({})", partition, retentionMode);
+        }
+    }
+
+    private boolean isPartitioned() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!POSTGRESQL.equals(product)) {
+            return false;
+        }
+        Integer partitioned = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Integer.class);
+        return partitioned != null && partitioned > 0;
+    }
+
+    public enum RetentionMode {
+        DROP,
+        DETACH
+    }
+}
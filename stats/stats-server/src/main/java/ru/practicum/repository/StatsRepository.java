@@ -1,8 +1,11 @@
 package ru.practicum.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 import ru.practicum.dto.ViewStats;
 import ru.practicum.model.Stats;
@@ -10,12 +13,76 @@ import ru.practicum.model.Stats;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface StatsRepository extends JpaRepository<Stats, Long> {
+public interface StatsRepository extends JpaRepository<Stats, Long>, StatsRepositoryCustom {
+    String EXPORT_FETCH_SIZE = "1000";
 
-    @Query("select s from Stats s where s.uri in :uris and s.timestamp between :start and :end")
-    List<Stats> findAllByUrisAndTimestampIsBetween(List<String> uris, LocalDateTime start, LocalDateTime end);
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(s.ip) as Integer)) from Stats s " +
+            "where s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(s.ip) desc")
+    List<ViewStats> findAllStats(LocalDateTime start, LocalDateTime end);
 
-    List<Stats> findAllByTimestampIsBetween(LocalDateTime start, LocalDateTime end);
-}
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(distinct s.ip) as Integer)) from Stats s " +
+            "where s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(distinct s.ip) desc")
+    List<ViewStats> findUniqueStats(LocalDateTime start, LocalDateTime end);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(s.ip) as Integer)) from Stats s " +
+            "where s.uri in :uris and s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(s.ip) desc")
+    List<ViewStats> findAllStatsByUris(List<String> uris, LocalDateTime start, LocalDateTime end);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(distinct s.ip) as Integer)) from Stats s " +
+            "where s.uri in :uris and s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(distinct s.ip) desc")
+    List<ViewStats> findUniqueStatsByUris(List<String> uris, LocalDateTime start, LocalDateTime end);
+
+    List<Stats> findAllByTimestampBetween(LocalDateTime start, LocalDateTime end);
+
+    List<Stats> findAllByUriInAndTimestampBetween(List<String> uris, LocalDateTime start, LocalDateTime end);
+
+    List<Stats> findAllByIdGreaterThanAndIdLessThanEqualOrderById(Long afterId, Long upToId, Limit limit);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(s.ip) as Integer)) from Stats s " +
+            "where s.id > :afterId and s.timestamp >= :from and s.timestamp < :to " +
+            "group by s.app, s.uri")
+    List<ViewStats> findPendingStats(Long afterId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(s.ip) as Integer)) from Stats s " +
+            "where s.uri in :uris and s.id > :afterId and s.timestamp >= :from and s.timestamp < :to " +
+            "group by s.app, s.uri")
+    List<ViewStats> findPendingStatsByUris(List<String> uris, Long afterId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select s from Stats s where s.id > :afterId and s.timestamp >= :from and s.timestamp < :to")
+    List<Stats> findPendingHits(Long afterId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select s from Stats s " +
+            "where s.uri in :uris and s.id > :afterId and s.timestamp >= :from and s.timestamp < :to")
+    List<Stats> findPendingHitsByUris(List<String> uris, Long afterId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(s.ip) as Integer)) from Stats s " +
+            "where s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(s.ip) desc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<ViewStats> streamAllStats(LocalDateTime start, LocalDateTime end);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(distinct s.ip) as Integer)) from Stats s " +
+            "where s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(distinct s.ip) desc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<ViewStats> streamUniqueStats(LocalDateTime start, LocalDateTime end);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(s.ip) as Integer)) from Stats s " +
+            "where s.uri in :uris and s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(s.ip) desc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<ViewStats> streamAllStatsByUris(List<String> uris, LocalDateTime start, LocalDateTime end);
+
+    @Query("select new ru.practicum.dto.ViewStats(s.app, s.uri, cast(count(distinct s.ip) as Integer)) from Stats s " +
+            "where s.uri in :uris and s.timestamp between :start and :end " +
+            "group by s.app, s.uri order by count(distinct s.ip) desc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    Stream<ViewStats> streamUniqueStatsByUris(List<String> uris, LocalDateTime start, LocalDateTime end);
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.practicum.repository;
+
+import ru.practicum.model.Stats;
+
+import java.util.List;
+
+public interface StatsRepositoryCustom {
+    void insertAll(List<Stats> stats);
+}
@@ -0,0 +1,29 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.model.Stats;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class StatsRepositoryCustomImpl implements StatsRepositoryCustom {
+    private static final String INSERT_SQL = "insert into stats (app, uri, ip, timestamp) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stats.insert.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void insertAll(List<Stats> stats) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, stats, batchSize, (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+}
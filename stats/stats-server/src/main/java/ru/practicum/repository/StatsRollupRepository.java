@@ -0,0 +1,56 @@
+package ru.practicum.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStats;
+import ru.practicum.model.RollupSketch;
+import ru.practicum.model.StatsRollup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, Long> {
+
+    @Modifying
+    @Query(value = "insert into stats_rollup (app, uri, bucket, hits) values (:app, :uri, :bucket, 0) " +
+            "on conflict do nothing", nativeQuery = true)
+    void insertIfAbsent(String app, String uri, LocalDateTime bucket);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StatsRollup> findByAppAndUriAndBucket(String app, String uri, LocalDateTime bucket);
+
+    @Query("select new ru.practicum.dto.ViewStats(r.app, r.uri, cast(sum(r.hits) as Integer)) from StatsRollup r " +
+            "where r.bucket >= :from and r.bucket < :to " +
+            "group by r.app, r.uri")
+    List<ViewStats> sumHits(LocalDateTime from, LocalDateTime to);
+
+    @Query("select new ru.practicum.dto.ViewStats(r.app, r.uri, cast(sum(r.hits) as Integer)) from StatsRollup r " +
+            "where r.uri in :uris and r.bucket >= :from and r.bucket < :to " +
+            "group by r.app, r.uri")
+    List<ViewStats> sumHitsByUris(List<String> uris, LocalDateTime from, LocalDateTime to);
+
+    @Query("select r.app as app, r.uri as uri, r.ipSketch as ipSketch from StatsRollup r " +
+            "where r.bucket >= :from and r.bucket < :to")
+    Stream<RollupSketch> streamSketches(LocalDateTime from, LocalDateTime to);
+
+    @Query("select r.app as app, r.uri as uri, r.ipSketch as ipSketch from StatsRollup r " +
+            "where r.uri in :uris and r.bucket >= :from and r.bucket < :to")
+    Stream<RollupSketch> streamSketchesByUris(List<String> uris, LocalDateTime from, LocalDateTime to);
+
+    @Query(value = "select last_stats_id from stats_rollup_progress where id = 1 for update", nativeQuery = true)
+    long lockLastRolledUpId();
+
+    @Query(value = "select last_stats_id from stats_rollup_progress where id = 1", nativeQuery = true)
+    long findLastRolledUpId();
+
+    @Modifying
+    @Query(value = "update stats_rollup_progress set last_stats_id = :lastStatsId where id = 1", nativeQuery = true)
+    void updateLastRolledUpId(long lastStatsId);
+}
\ No newline at end of file
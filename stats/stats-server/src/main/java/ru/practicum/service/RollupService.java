@@ -0,0 +1,25 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RollupService {
+    boolean isEnabled();
+
+    /**
+     * Returns the highest committed stats id. Hits with lower ids may still be in flight.
+     */
+    long findMaxId();
+
+    /**
+     * Adds up to {@code batchSize} hits after the last rolled-up id, and not past {@code horizon}, to their
+     * buckets. Returns the number of hits rolled up.
+     */
+    int rollUp(long horizon, int batchSize);
+
+    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    List<ViewStats> getUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris);
+}
\ No newline at end of file
@@ -0,0 +1,230 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.ViewStats;
+import ru.practicum.mapper.StatsMapper;
+import ru.practicum.model.RollupSketch;
+import ru.practicum.model.Stats;
+import ru.practicum.model.StatsRollup;
+import ru.practicum.repository.StatsRepository;
+import ru.practicum.repository.StatsRollupRepository;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Serves range queries from per-bucket rollups. Hits are not rolled up on the ingestion path: StatsRollupJob adds
+ * them in batches, in id order, and stats_rollup_progress keeps the last rolled-up id. Reads combine the rollups with
+ * the raw hits after that id in one repeatable-read snapshot, so every hit is counted exactly once. Rollups need
+ * PostgreSQL; on other databases they are turned off and every query reads raw hits.
+ */
+@Service
+@Slf4j
+public class RollupServiceImpl implements RollupService {
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String MAX_ID_SQL = "select coalesce(max(id), 0) from stats";
+    private static final Comparator<BucketKey> KEY_ORDER = Comparator.comparing(BucketKey::bucket)
+            .thenComparing(BucketKey::app)
+            .thenComparing(BucketKey::uri);
+
+    private final StatsRollupRepository rollupRepository;
+    private final StatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long bucketSeconds;
+
+    public RollupServiceImpl(StatsRollupRepository rollupRepository,
+                             StatsRepository statsRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${stats.rollup.enabled:true}") boolean enabled,
+                             @Value("${stats.rollup.bucket:1h}") Duration bucket) {
+        this.rollupRepository = rollupRepository;
+        this.statsRepository = statsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled && isPostgreSql();
+        if (enabled && !this.enabled) {
+            log.info("Stats rollups are turned off: they need PostgreSQL");
+        }
+        this.bucketSeconds = bucket.toSeconds();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    @Override
+    @Transactional
+    public int rollUp(long horizon, int batchSize) {
+        long lastId = rollupRepository.lockLastRolledUpId();
+        if (lastId >= horizon) {
+            return 0;
+        }
+        List<Stats> stats = statsRepository.findAllByIdGreaterThanAndIdLessThanEqualOrderById(lastId, horizon,
+                Limit.of(batchSize));
+        record(stats);
+        long rolledUpId = stats.size() < batchSize ? horizon : stats.get(stats.size() - 1).getId();
+        rollupRepository.updateLastRolledUpId(rolledUpId);
+        return stats.size();
+    }
+
+    /**
+     * Applies a batch with one upsert and one update per (app, uri, bucket) row, whatever the number of hits.
+     */
+    private void record(List<Stats> stats) {
+        Map<BucketKey, List<Stats>> hitsByBucket = new TreeMap<>(KEY_ORDER);
+        for (Stats hit : stats) {
+            BucketKey key = new BucketKey(hit.getApp(), hit.getUri(), floor(hit.getTimestamp()));
+            hitsByBucket.computeIfAbsent(key, k -> new ArrayList<>()).add(hit);
+        }
+        for (Map.Entry<BucketKey, List<Stats>> entry : hitsByBucket.entrySet()) {
+            BucketKey key = entry.getKey();
+            rollupRepository.insertIfAbsent(key.app(), key.uri(), key.bucket());
+            StatsRollup rollup = rollupRepository.findByAppAndUriAndBucket(key.app(), key.uri(), key.bucket())
+                    .orElseThrow();
+            HyperLogLog sketch = HyperLogLog.fromBytes(rollup.getIpSketch());
+            for (Stats hit : entry.getValue()) {
+                sketch.offer(hit.getIp());
+            }
+            rollup.setHits(rollup.getHits() + entry.getValue().size());
+            rollup.setIpSketch(sketch.toBytes());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        LocalDateTime from = ceil(start);
+        LocalDateTime to = floor(end.plus(1, ChronoUnit.MICROS));
+        if (!from.isBefore(to)) {
+            return Objects.nonNull(uris)
+                    ? statsRepository.findAllStatsByUris(uris, start, end)
+                    : statsRepository.findAllStats(start, end);
+        }
+
+        Map<HitsKey, Integer> hits = new HashMap<>();
+        long lastId = rollupRepository.findLastRolledUpId();
+        merge(hits, Objects.nonNull(uris)
+                ? rollupRepository.sumHitsByUris(uris, from, to)
+                : rollupRepository.sumHits(from, to));
+        merge(hits, Objects.nonNull(uris)
+                ? statsRepository.findPendingStatsByUris(uris, lastId, from, to)
+                : statsRepository.findPendingStats(lastId, from, to));
+        if (start.isBefore(from)) {
+            LocalDateTime edgeEnd = from.minus(1, ChronoUnit.MICROS);
+            merge(hits, Objects.nonNull(uris)
+                    ? statsRepository.findAllStatsByUris(uris, start, edgeEnd)
+                    : statsRepository.findAllStats(start, edgeEnd));
+        }
+        if (!end.isBefore(to)) {
+            merge(hits, Objects.nonNull(uris)
+                    ? statsRepository.findAllStatsByUris(uris, to, end)
+                    : statsRepository.findAllStats(to, end));
+        }
+        log.info("Combined rollup buckets [{}, {}) with raw edges of [{}, {}]", from, to, start, end);
+
+        return hits.entrySet().stream()
+                .map(entry -> StatsMapper.toResponseDto(entry.getKey().app(), entry.getKey().uri(), entry.getValue()))
+                .sorted(Comparator.comparingInt(ViewStats::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<ViewStats> getUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        LocalDateTime from = ceil(start);
+        LocalDateTime to = floor(end.plus(1, ChronoUnit.MICROS));
+        if (!from.isBefore(to)) {
+            return Objects.nonNull(uris)
+                    ? statsRepository.findUniqueStatsByUris(uris, start, end)
+                    : statsRepository.findUniqueStats(start, end);
+        }
+
+        Map<HitsKey, HyperLogLog> sketches = new HashMap<>();
+        long lastId = rollupRepository.findLastRolledUpId();
+        try (Stream<RollupSketch> rollups = Objects.nonNull(uris)
+                ? rollupRepository.streamSketchesByUris(uris, from, to)
+                : rollupRepository.streamSketches(from, to)) {
+            rollups.forEach(rollup -> sketches.computeIfAbsent(new HitsKey(rollup.getApp(), rollup.getUri()),
+                    key -> new HyperLogLog()).merge(rollup.getIpSketch()));
+        }
+        offer(sketches, Objects.nonNull(uris)
+                ? statsRepository.findPendingHitsByUris(uris, lastId, from, to)
+                : statsRepository.findPendingHits(lastId, from, to));
+        if (start.isBefore(from)) {
+            LocalDateTime edgeEnd = from.minus(1, ChronoUnit.MICROS);
+            offer(sketches, Objects.nonNull(uris)
+                    ? statsRepository.findAllByUriInAndTimestampBetween(uris, start, edgeEnd)
+                    : statsRepository.findAllByTimestampBetween(start, edgeEnd));
+        }
+        if (!end.isBefore(to)) {
+            offer(sketches, Objects.nonNull(uris)
+                    ? statsRepository.findAllByUriInAndTimestampBetween(uris, to, end)
+                    : statsRepository.findAllByTimestampBetween(to, end));
+        }
+        log.info("Estimated unique hits from rollup sketches [{}, {}) with raw edges of [{}, {}]", from, to, start,
+                end);
+
+        return sketches.entrySet().stream()
+                .map(entry -> StatsMapper.toResponseDto(entry.getKey().app(), entry.getKey().uri(),
+                        (int) entry.getValue().estimate()))
+                .sorted(Comparator.comparingInt(ViewStats::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private void offer(Map<HitsKey, HyperLogLog> sketches, List<Stats> stats) {
+        for (Stats hit : stats) {
+            sketches.computeIfAbsent(new HitsKey(hit.getApp(), hit.getUri()), key -> new HyperLogLog())
+                    .offer(hit.getIp());
+        }
+    }
+
+    private void merge(Map<HitsKey, Integer> hits, List<ViewStats> stats) {
+        for (ViewStats viewStats : stats) {
+            hits.merge(new HitsKey(viewStats.getApp(), viewStats.getUri()), viewStats.getHits(), Integer::sum);
+        }
+    }
+
+    private boolean isPostgreSql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return POSTGRESQL.equals(product);
+    }
+
+    private LocalDateTime floor(LocalDateTime timestamp) {
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochSecond, bucketSeconds) * bucketSeconds, 0,
+                ZoneOffset.UTC);
+    }
+
+    private LocalDateTime ceil(LocalDateTime timestamp) {
+        LocalDateTime floor = floor(timestamp);
+        return floor.isEqual(timestamp) ? floor : floor.plusSeconds(bucketSeconds);
+    }
+
+    private record BucketKey(String app, String uri, LocalDateTime bucket) {
+    }
+
+    private record HitsKey(String app, String uri) {
+    }
+}
@@ -10,9 +10,17 @@ import ru.practicum.repository.StatsRepository;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatsService {
-    List<ViewStats> getStats(String start, String end, List<String> uris, Boolean unique);
+    List<ViewStats> getStats(String start, String end, List<String> uris, Boolean unique, Boolean approximate);
+
+    /**
+     * Passes exact stats to {@code action} one row at a time, as they are read from a database cursor.
+     */
+    void exportStats(String start, String end, List<String> uris, Boolean unique, Consumer<ViewStats> action);
 
     EndpointHit createStats(EndpointHit endpointHit);
+
+    void createStats(List<EndpointHit> endpointHits);
 }
\ No newline at end of file
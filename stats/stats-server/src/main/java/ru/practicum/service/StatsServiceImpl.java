@@ -4,130 +4,151 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.EndpointHit;
 import ru.practicum.dto.ViewStats;
 import ru.practicum.mapper.StatsMapper;
+import ru.practicum.metrics.ServiceMetrics;
 import ru.practicum.model.Stats;
 import ru.practicum.repository.StatsRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class StatsServiceImpl implements StatsService {
+    private static final String GET_STATS_TIMER = "stats.server.get";
+    private static final String EXPORT_STATS_TIMER = "stats.server.export";
+    private static final String CREATE_HIT_TIMER = "stats.server.hit";
+    private static final String CREATE_HITS_TIMER = "stats.server.hits";
+    private static final String HITS_RECORDED_COUNTER = "stats.server.hits.recorded";
+
     private final StatsRepository statsRepository;
+    private final RollupService rollupService;
+    private final ServiceMetrics serviceMetrics;
 
     @Override
-    public List<ViewStats> getStats(String startStr, String endStr, List<String> uris, Boolean unique) {
-        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        LocalDateTime start = LocalDateTime.parse(startStr, format);
-        LocalDateTime end = LocalDateTime.parse(endStr, format);
+    public List<ViewStats> getStats(String startStr, String endStr, List<String> uris, Boolean unique,
+                                    Boolean approximate) {
+        return serviceMetrics.record(GET_STATS_TIMER, () -> {
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+            LocalDateTime start = LocalDateTime.parse(startStr, format);
+            LocalDateTime end = LocalDateTime.parse(endStr, format);
 
-        if (start.isAfter(end)) {
-            throw new IllegalArgumentException("Некорректные даты в запросе");
-        }
+            if (start.isAfter(end)) {
+                throw new IllegalArgumentException("Некорректные даты в запросе");
+            }
 
-        if (Objects.nonNull(uris)) {
-            if (unique) {
-                return getUniqueStatsByUri(start, end, uris);
-            } else {
-                return getAllStatsByUri(start, end, uris);
+            if (rollupService.isEnabled()) {
+                if (!unique) {
+                    return rollupService.getStats(start, end, uris);
+                }
+                if (approximate) {
+                    return rollupService.getUniqueStats(start, end, uris);
+                }
             }
-        } else {
-            if (unique) {
-                return getUniqueStats(start, end);
+
+            if (Objects.nonNull(uris)) {
+                if (unique) {
+                    return getUniqueStatsByUri(start, end, uris);
+                } else {
+                    return getAllStatsByUri(start, end, uris);
+                }
             } else {
-                return getAllStats(start, end);
+                if (unique) {
+                    return getUniqueStats(start, end);
+                } else {
+                    return getAllStats(start, end);
+                }
             }
-        }
+        });
     }
 
     @Override
-    public EndpointHit createStats(EndpointHit endpointHit) {
-        Stats stats = StatsMapper.toEntity(endpointHit);
-        return StatsMapper.toRequestDto(statsRepository.save(stats));
-    }
+    @Transactional(readOnly = true)
+    public void exportStats(String startStr, String endStr, List<String> uris, Boolean unique,
+                            Consumer<ViewStats> action) {
+        serviceMetrics.record(EXPORT_STATS_TIMER, () -> {
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+            LocalDateTime start = LocalDateTime.parse(startStr, format);
+            LocalDateTime end = LocalDateTime.parse(endStr, format);
 
-    private List<ViewStats> getUniqueStats(LocalDateTime start, LocalDateTime end) {
-        List<Stats> statsList = statsRepository.findAllByTimestampIsBetween(start, end);
-        statsList = getUniqueStats(statsList);
-        return getResponseStatsDtos(statsList);
-    }
+            if (start.isAfter(end)) {
+                throw new IllegalArgumentException("Некорректные даты в запросе");
+            }
 
-    private List<ViewStats> getAllStats(LocalDateTime start, LocalDateTime end) {
-        List<Stats> statsList = statsRepository.findAllByTimestampIsBetween(start, end);
-        log.info("Find non-uniq statsList {}", statsList);
-        return getResponseStatsDtos(statsList);
+            long rows = 0;
+            try (Stream<ViewStats> stats = streamStats(start, end, uris, unique)) {
+                Iterator<ViewStats> iterator = stats.iterator();
+                while (iterator.hasNext()) {
+                    action.accept(iterator.next());
+                    rows++;
+                }
+            }
+            log.info("Exported {} stats rows from {} to {}, uris = {}, unique = {}", rows, start, end, uris, unique);
+        });
     }
 
-    private List<ViewStats> getUniqueStatsByUri(LocalDateTime start, LocalDateTime end, List<String> uris) {
-        List<Stats> statsList = statsRepository.findAllByUrisAndTimestampIsBetween(uris, start, end);
-        statsList = getUniqueStats(statsList);
-        return getResponseStatsDtos(statsList);
+    @Override
+    @Transactional(timeoutString = "${stats.insert.timeout-seconds:10}")
+    public EndpointHit createStats(EndpointHit endpointHit) {
+        return serviceMetrics.record(CREATE_HIT_TIMER, () -> {
+            Stats stats = statsRepository.save(StatsMapper.toEntity(endpointHit));
+            serviceMetrics.counter(HITS_RECORDED_COUNTER).increment();
+            return StatsMapper.toRequestDto(stats);
+        });
     }
 
-    private List<ViewStats> getAllStatsByUri(LocalDateTime start, LocalDateTime end, List<String> uris) {
-        List<Stats> statsList = statsRepository.findAllByUrisAndTimestampIsBetween(uris, start, end);
-        return getResponseStatsDtos(statsList);
+    @Override
+    @Transactional(timeoutString = "${stats.insert.timeout-seconds:10}")
+    public void createStats(List<EndpointHit> endpointHits) {
+        serviceMetrics.record(CREATE_HITS_TIMER, () -> {
+            List<Stats> stats = StatsMapper.toEntities(endpointHits);
+            statsRepository.insertAll(stats);
+            serviceMetrics.counter(HITS_RECORDED_COUNTER).increment(stats.size());
+            log.info("Saved {} hits", stats.size());
+        });
     }
 
-    private List<Stats> getUniqueStats(List<Stats> statsList) {
-        Set<String> uniqueIps = new HashSet<>();
-        List<Stats> uniqueStats = new ArrayList<>();
-        log.info("Reading uniq statsList {}", statsList);
-        for (Stats stats : statsList) {
-            String ip = stats.getIp();
-            if (uniqueIps.add(ip)) {
-                uniqueStats.add(stats);
-            }
+    private Stream<ViewStats> streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        if (Objects.nonNull(uris)) {
+            return unique
+                    ? statsRepository.streamUniqueStatsByUris(uris, start, end)
+                    : statsRepository.streamAllStatsByUris(uris, start, end);
         }
-        return uniqueStats;
+        return unique
+                ? statsRepository.streamUniqueStats(start, end)
+                : statsRepository.streamAllStats(start, end);
     }
 
-    private List<ViewStats> getResponseStatsDtos(List<Stats> statsList) {
-        Set<String> uris = new HashSet<>();
-        List<ViewStats> response = new ArrayList<>();
-        log.info("Getting statsList {}", statsList);
-        for (Stats stats : statsList) {
-            String uri = stats.getUri();
-            if (!uris.contains(uri)) {
-                response.addAll(getStatByApp(statsList, uri));
-                uris.add(uri);
-            }
-        }
-        return response.stream()
-                .sorted(Comparator.comparingInt(ViewStats::getHits).reversed())
-                .collect(Collectors.toList());
+    private List<ViewStats> getUniqueStats(LocalDateTime start, LocalDateTime end) {
+        List<ViewStats> stats = statsRepository.findUniqueStats(start, end);
+        log.info("Found uniq stats {}", stats);
+        return stats;
     }
 
-    private List<ViewStats> getStatByApp(List<Stats> statsList, String uri) {
-        log.info("Getting StatByApp statsList {}", statsList);
-        List<ViewStats> statsByApp = new ArrayList<>();
-        Map<String, Integer> counter = countByApp(statsList, uri);
-        for (Map.Entry<String, Integer> entry : counter.entrySet()) {
-            statsByApp.add(StatsMapper.toResponseDto(entry.getKey(), uri, entry.getValue()));
-        }
-        return statsByApp;
+    private List<ViewStats> getAllStats(LocalDateTime start, LocalDateTime end) {
+        List<ViewStats> stats = statsRepository.findAllStats(start, end);
+        log.info("Found non-uniq stats {}", stats);
+        return stats;
     }
 
-    private Map<String, Integer> countByApp(List<Stats> statsList, String uri) {
-        log.info("Counting StatByApp statsList {}", statsList);
-        Map<String, Integer> counter = new HashMap<>();
-        for (Stats stats : statsList) {
-            if (Objects.equals(stats.getUri(), uri)) {
-                String app = stats.getApp();
-                if (counter.containsKey(app)) {
-                    int count = counter.get(app);
-                    counter.put(app, count + 1);
-                } else {
-                    counter.put(app, 1);
-                }
-            }
-        }
-        return counter;
+    private List<ViewStats> getUniqueStatsByUri(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        List<ViewStats> stats = statsRepository.findUniqueStatsByUris(uris, start, end);
+        log.info("Found uniq stats {} for uris {}", stats, uris);
+        return stats;
+    }
+
+    private List<ViewStats> getAllStatsByUri(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        List<ViewStats> stats = statsRepository.findAllStatsByUris(uris, start, end);
+        log.info("Found non-uniq stats {} for uris {}", stats, uris);
+        return stats;
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package ru.practicum.sketch;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch with 2^12 one-byte registers (4 KB). The standard error of {@link #estimate()} is
+ * 1.04 / sqrt(4096), about 1.6%. Sketches built over different time buckets can be merged without loss.
+ */
+public class HyperLogLog {
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTERS) {
+            return new HyperLogLog();
+        }
+        return new HyperLogLog(Arrays.copyOf(bytes, REGISTERS));
+    }
+
+    public byte[] toBytes() {
+        return Arrays.copyOf(registers, REGISTERS);
+    }
+
+    public void offer(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public void merge(byte[] bytes) {
+        if (bytes != null && bytes.length == REGISTERS) {
+            merge(new HyperLogLog(bytes));
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53a87c3L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,17 @@
+CREATE TABLE stats (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    app       VARCHAR(255)                            NOT NULL,
+    uri       VARCHAR(255)                            NOT NULL,
+    ip        VARCHAR(255)                            NOT NULL,
+    timestamp TIMESTAMP                               NOT NULL
+);
+
+CREATE TABLE stats_rollup (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    app       VARCHAR(255)                            NOT NULL,
+    uri       VARCHAR(255)                            NOT NULL,
+    bucket    TIMESTAMP                               NOT NULL,
+    hits      BIGINT                                  NOT NULL,
+    ip_sketch BYTEA,
+    CONSTRAINT stats_rollup_app_uri_bucket_uq UNIQUE (app, uri, bucket)
+);
@@ -0,0 +1,4 @@
+CREATE INDEX stats_uri_timestamp_idx ON stats (uri, timestamp);
+CREATE INDEX stats_timestamp_idx ON stats (timestamp);
+
+CREATE INDEX stats_rollup_bucket_idx ON stats_rollup (bucket);
@@ -0,0 +1,8 @@
+-- Id of the last stats row added to stats_rollup. Hits up to it were rolled up synchronously before this version.
+CREATE TABLE stats_rollup_progress (
+    id            INT    NOT NULL PRIMARY KEY,
+    last_stats_id BIGINT NOT NULL
+);
+
+INSERT INTO stats_rollup_progress (id, last_stats_id)
+SELECT 1, coalesce(max(id), 0) FROM stats;
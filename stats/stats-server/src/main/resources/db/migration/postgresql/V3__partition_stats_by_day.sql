@@ -0,0 +1,40 @@
+-- Range-partitions stats by day. Partitions from today on are kept ahead by StatsPartitionManager.
+-- Existing rows are moved into a partition for their own day, however old. stats_default only catches hits for
+-- days without a partition; StatsPartitionManager moves them out when it creates that day's partition.
+
+DROP INDEX stats_uri_timestamp_idx;
+DROP INDEX stats_timestamp_idx;
+ALTER TABLE stats RENAME TO stats_unpartitioned;
+
+CREATE TABLE stats (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    app       VARCHAR(255)                            NOT NULL,
+    uri       VARCHAR(255)                            NOT NULL,
+    ip        VARCHAR(255)                            NOT NULL,
+    timestamp TIMESTAMP                               NOT NULL,
+    CONSTRAINT stats_pk PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE stats_default PARTITION OF stats DEFAULT;
+
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN
+        SELECT DISTINCT timestamp::date FROM stats_unpartitioned
+        UNION
+        SELECT generate_series(current_date, current_date + 7, interval '1 day')::date
+    LOOP
+        EXECUTE format('CREATE TABLE stats_p%s PARTITION OF stats FOR VALUES FROM (%L) TO (%L)',
+                       to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+INSERT INTO stats (id, app, uri, ip, timestamp)
+SELECT id, app, uri, ip, timestamp FROM stats_unpartitioned;
+SELECT setval(pg_get_serial_sequence('stats', 'id'), coalesce((SELECT max(id) FROM stats), 0) + 1, false);
+DROP TABLE stats_unpartitioned;
+
+CREATE INDEX stats_uri_timestamp_idx ON stats (uri, timestamp);
+CREATE INDEX stats_timestamp_idx ON stats (timestamp);
@@ -0,0 +1,96 @@
+package ru.practicum.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+    // Three standard errors at 2^12 registers: 3 * 1.04 / sqrt(4096).
+    private static final double MAX_RELATIVE_ERROR = 3 * 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+
+    @Test
+    void estimateStaysWithinErrorBound() {
+        for (int count : new int[]{100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = sketchOf(0, count);
+
+            assertThat((double) sketch.estimate()).as("estimate of %d", count)
+                    .isCloseTo(count, within(count * MAX_RELATIVE_ERROR));
+        }
+    }
+
+    @Test
+    void repeatedValuesAreCountedOnce() {
+        HyperLogLog sketch = sketchOf(0, 1_000);
+        long estimate = sketch.estimate();
+
+        for (int i = 0; i < 1_000; i++) {
+            sketch.offer(ip(i));
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void mergeEqualsSketchOfUnion() {
+        HyperLogLog first = sketchOf(0, 60_000);
+        HyperLogLog second = sketchOf(40_000, 100_000);
+
+        first.merge(second);
+
+        assertThat(first.toBytes()).isEqualTo(sketchOf(0, 100_000).toBytes());
+        assertThat((double) first.estimate()).isCloseTo(100_000, within(100_000 * MAX_RELATIVE_ERROR));
+    }
+
+    @Test
+    void mergeOfBytesIgnoresMalformedInput() {
+        HyperLogLog sketch = sketchOf(0, 1_000);
+        byte[] before = sketch.toBytes();
+
+        sketch.merge((byte[]) null);
+        sketch.merge(new byte[HyperLogLog.REGISTERS - 1]);
+
+        assertThat(sketch.toBytes()).isEqualTo(before);
+        sketch.merge(sketchOf(1_000, 2_000).toBytes());
+        assertThat(sketch.toBytes()).isEqualTo(sketchOf(0, 2_000).toBytes());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 50_000);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void fromBytesCopiesInput() {
+        byte[] bytes = sketchOf(0, 1_000).toBytes();
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+        long estimate = restored.estimate();
+
+        bytes[0] = 60;
+
+        assertThat(restored.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void fromMalformedBytesIsEmpty() {
+        assertThat(HyperLogLog.fromBytes(null).estimate()).isZero();
+        assertThat(HyperLogLog.fromBytes(new byte[16]).estimate()).isZero();
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.offer(ip(i));
+        }
+        return sketch;
+    }
+
+    private static String ip(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+}